@@ -0,0 +1,11 @@
+package com.roger.auth_service.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 注入客户端 IP（String），见 ClientIpResolver：TCP 对端地址，只有经过可信代理时才看 X-Forwarded-For
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ClientIp {
+}
@@ -0,0 +1,19 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.admin")
+public class AdminProperties {
+    /**
+     * 平台管理项目：这个项目的 OWNER / ADMIN 额外获得 ROLE_PLATFORM_ADMIN，可以跨项目操作
+     * （撤销用户在所有项目的 token、重载项目注册表）。
+     * 不配置 = 没有平台管理员，所有管理接口都只能操作调用方 token 里的 project_id
+     */
+    private String platformProjectId;
+}
@@ -1,15 +1,60 @@
 package com.roger.auth_service.config;
 
+import com.roger.auth_service.jdbc.ObservedDataSourcePostProcessor;
+import com.roger.auth_service.jdbc.StatementListener;
+import com.roger.auth_service.service.InMemoryRateLimiterBackend;
+import com.roger.auth_service.service.InProcessMembershipInvalidationBus;
+import com.roger.auth_service.service.MembershipInvalidationBus;
+import com.roger.auth_service.service.RateLimiterBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class ApplicationConfig {
 
+    /**
+     * {id} 前缀的 DelegatingPasswordEncoder，启动时按 auth.password-hashing.target-latency 校准 cost
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties) {
+        return PasswordEncoderFactory.create(passwordHashingProperties);
+    }
+
+    /**
+     * 默认：进程内广播。多节点部署时声明自己的 MembershipInvalidationBus bean 替换
+     */
+    @Bean
+    @ConditionalOnMissingBean(MembershipInvalidationBus.class)
+    public MembershipInvalidationBus membershipInvalidationBus() {
+        return new InProcessMembershipInvalidationBus();
+    }
+
+    /**
+     * 默认：每个节点各自限流。需要跨节点共享额度时声明自己的 RateLimiterBackend bean 替换
+     */
+    @Bean
+    @ConditionalOnMissingBean(RateLimiterBackend.class)
+    public RateLimiterBackend rateLimiterBackend(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        return new InMemoryRateLimiterBackend(rateLimitProperties.getMaxEntries(), meterRegistry);
+    }
+
+    /**
+     * 有 enabled 的 StatementListener（Server-Timing 等）时包装 DataSource；static，避免提前初始化本配置类
+     */
+    @Bean
+    public static ObservedDataSourcePostProcessor observedDataSourcePostProcessor(ObjectProvider<StatementListener> statementListeners) {
+        return new ObservedDataSourcePostProcessor(statementListeners);
+    }
+
+    /**
+     * auth.datasource-pool.auto-size=true 时按核数 / 数据库连接上限设置 Hikari 连接池大小
+     */
+    @Bean
+    static HikariPoolSizer hikariPoolSizer(ObjectProvider<DataSourcePoolProperties> dataSourcePoolProperties) {
+        return new HikariPoolSizer(dataSourcePoolProperties);
     }
 }
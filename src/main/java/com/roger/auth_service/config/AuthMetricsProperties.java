@@ -0,0 +1,20 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.metrics")
+public class AuthMetricsProperties {
+    /**
+     * 只有这些 projectId 会作为 project tag 的值，其他一律记为 "other"（控制 tag 基数）
+     */
+    private Set<String> projectAllowList = new HashSet<>();
+}
@@ -0,0 +1,38 @@
+package com.roger.auth_service.config;
+
+import com.roger.auth_service.annotation.ClientIp;
+import com.roger.auth_service.security.ClientIpResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * {@code @ClientIp String} 参数：由 {@link ClientIpResolver} 从连接 / 可信代理的转发头解析，
+ * 不从请求参数绑定（否则 ?clientIp= 可以随便填）
+ */
+class ClientIpArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ClientIpResolver clientIpResolver;
+
+    ClientIpArgumentResolver(ClientIpResolver clientIpResolver) {
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(ClientIp.class)
+                && String.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        return request == null ? null : clientIpResolver.resolve(request);
+    }
+}
@@ -0,0 +1,26 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.client-ip")
+public class ClientIpProperties {
+    /**
+     * 可信的反向代理 / 负载均衡（IP 或 CIDR）。只有直连地址在这里面时才看 forwarded-header，
+     * 否则客户端 IP 就是 TCP 对端地址。默认空 = 不信任任何转发头（客户端可以随便伪造）
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * 可信代理追加客户端地址的请求头
+     */
+    private String forwardedHeader = "X-Forwarded-For";
+}
@@ -0,0 +1,37 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.datasource-pool")
+public class DataSourcePoolProperties {
+    /**
+     * true: 启动时按 CPU 核数和数据库连接上限计算 Hikari 连接池大小，覆盖 spring.datasource.hikari.maximum-pool-size
+     */
+    private boolean autoSize = false;
+
+    /**
+     * 每个 CPU 核几个连接（加上 1 个备用）：核数 * connectionsPerCore + 1
+     */
+    private int connectionsPerCore = 2;
+
+    /**
+     * 数据库的 max_connections
+     */
+    private int databaseMaxConnections = 100;
+
+    /**
+     * 留给迁移、运维、监控等的连接数，不分给应用
+     */
+    private int reservedConnections = 10;
+
+    /**
+     * 共享这个数据库的服务实例数（含滚动发布时的额外实例）
+     */
+    private int instances = 1;
+}
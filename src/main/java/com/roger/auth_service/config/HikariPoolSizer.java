@@ -0,0 +1,48 @@
+package com.roger.auth_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * 按 {@link DataSourcePoolProperties} 算出 Hikari 连接池大小：
+ * min(核数 * connectionsPerCore + 1, (databaseMaxConnections - reservedConnections) / instances)。
+ * <p>
+ * 连接池不是越大越好：超过数据库能并行执行的数量之后，只会让等待从连接池挪到数据库里（锁、上下文切换）。
+ * minimumIdle 设成同样的值（固定大小的池），突发流量时不用现建连接。
+ * 在 spring.datasource.hikari.* 绑定之后、连接池启动之前执行。
+ */
+@Slf4j
+class HikariPoolSizer implements BeanPostProcessor {
+
+    private final ObjectProvider<DataSourcePoolProperties> properties;
+
+    HikariPoolSizer(ObjectProvider<DataSourcePoolProperties> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource dataSource)) {
+            return bean;
+        }
+        DataSourcePoolProperties pool = properties.getIfAvailable();
+        if (pool == null || !pool.isAutoSize()) {
+            return bean;
+        }
+        int size = poolSize(pool, Runtime.getRuntime().availableProcessors());
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(size);
+        log.info("Hikari pool '{}' sized to {} (cores={}, databaseMaxConnections={}, reserved={}, instances={})",
+                beanName, size, Runtime.getRuntime().availableProcessors(),
+                pool.getDatabaseMaxConnections(), pool.getReservedConnections(), pool.getInstances());
+        return bean;
+    }
+
+    static int poolSize(DataSourcePoolProperties pool, int cores) {
+        int byCpu = cores * Math.max(1, pool.getConnectionsPerCore()) + 1;
+        int byDatabase = (pool.getDatabaseMaxConnections() - pool.getReservedConnections()) / Math.max(1, pool.getInstances());
+        return Math.max(2, Math.min(byCpu, byDatabase));
+    }
+}
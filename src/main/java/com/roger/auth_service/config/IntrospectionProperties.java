@@ -0,0 +1,37 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.introspection")
+public class IntrospectionProperties {
+    /**
+     * 一次最多校验多少个 token
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 并行校验缓存未命中 token 的线程数，0 = CPU 核数
+     */
+    private int threads = 0;
+
+    /**
+     * true: 还要检查用户仍是该项目成员且账号可用（走 MembershipCache），
+     * 角色被移除 / 账号被停用的 token 返回 active=false
+     */
+    private boolean checkMembership = true;
+
+    /**
+     * 允许调用 /v1/auth/introspect 的网关：client id -> secret，HTTP Basic 认证。
+     * secret 带编码前缀（{bcrypt}... / {noop}...），为空时该端点一律 401
+     */
+    private Map<String, String> clients = new LinkedHashMap<>();
+}
@@ -0,0 +1,24 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.last-login")
+public class LastLoginProperties {
+    /**
+     * 多久把内存里攒的 lastLoginAt 刷一次库
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * 一条 UPDATE ... FROM (VALUES ...) 最多带多少个用户
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,26 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.membership-cache")
+public class MembershipCacheProperties {
+    private boolean enabled = true;
+
+    /**
+     * 缓存的角色最多旧多久（跨节点失效丢了消息时的兜底上限）
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * 最多缓存多少个 (userId, projectId)（软上限）
+     */
+    private int maxSize = 100_000;
+}
@@ -0,0 +1,121 @@
+package com.roger.auth_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 构造 {@link DelegatingPasswordEncoder}：新 hash 用 {id} 前缀标记算法，老的无前缀 BCrypt hash 继续能校验。
+ * <p>
+ * 启动时先在下限参数上量一次耗时，再按目标耗时等比放大 cost（BCrypt 每 +1 翻倍，Argon2 / PBKDF2 按迭代次数线性）。
+ * 参数调高后，旧 hash 的 upgradeEncoding() 返回 true，登录时由 PasswordRehasher 异步升级。
+ * 注意：PBKDF2 的 hash 里不记录迭代次数，只能跨算法升级，调整迭代次数不会触发重算。
+ */
+@Slf4j
+final class PasswordEncoderFactory {
+
+    static final String BCRYPT = "bcrypt";
+    static final String ARGON2 = "argon2";
+    static final String PBKDF2 = "pbkdf2";
+
+    private static final String SAMPLE = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    private PasswordEncoderFactory() {
+    }
+
+    static PasswordEncoder create(PasswordHashingProperties properties) {
+        PasswordHashingProperties.Algorithm algorithm = properties.getAlgorithm();
+        Duration target = properties.getTargetLatency();
+        boolean calibrate = target != null && !target.isZero() && !target.isNegative();
+
+        PasswordHashingProperties.Bcrypt bcryptProps = properties.getBcrypt();
+        PasswordHashingProperties.Argon2 argon2Props = properties.getArgon2();
+        PasswordHashingProperties.Pbkdf2 pbkdf2Props = properties.getPbkdf2();
+
+        int strength = bcryptProps.getStrength();
+        int argon2Iterations = argon2Props.getIterations();
+        int pbkdf2Iterations = pbkdf2Props.getIterations();
+
+        if (calibrate) {
+            switch (algorithm) {
+                case BCRYPT -> {
+                    double scale = scale(new BCryptPasswordEncoder(strength), target);
+                    int extra = (int) Math.floor(Math.log(scale) / Math.log(2));
+                    strength = clamp(strength + extra, bcryptProps.getStrength(), bcryptProps.getMaxStrength());
+                }
+                case ARGON2ID -> {
+                    double scale = scale(argon2(argon2Props, argon2Iterations), target);
+                    argon2Iterations = clamp((int) (argon2Iterations * scale),
+                            argon2Props.getIterations(), argon2Props.getMaxIterations());
+                }
+                case PBKDF2 -> {
+                    double scale = scale(pbkdf2(pbkdf2Props, pbkdf2Iterations), target);
+                    pbkdf2Iterations = clamp((int) (pbkdf2Iterations * scale),
+                            pbkdf2Props.getIterations(), pbkdf2Props.getMaxIterations());
+                }
+            }
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, argon2(argon2Props, argon2Iterations));
+        encoders.put(PBKDF2, pbkdf2(pbkdf2Props, pbkdf2Iterations));
+
+        String idForEncode = switch (algorithm) {
+            case BCRYPT -> BCRYPT;
+            case ARGON2ID -> ARGON2;
+            case PBKDF2 -> PBKDF2;
+        };
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // 历史数据：无前缀的 $2a$ hash
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        log.info("Password encoder: algorithm={} bcryptStrength={} argon2Iterations={} argon2MemoryKib={} " +
+                        "pbkdf2Iterations={} targetLatency={}",
+                algorithm, strength, argon2Iterations, argon2Props.getMemoryKib(), pbkdf2Iterations,
+                calibrate ? target : "off");
+        return delegating;
+    }
+
+    /**
+     * 目标耗时 / 下限参数的实测耗时（取中位数，先预热一次）
+     */
+    private static double scale(PasswordEncoder encoder, Duration target) {
+        encoder.encode(SAMPLE);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long measured = Math.max(1, samples[SAMPLES / 2]);
+        return (double) target.toNanos() / measured;
+    }
+
+    private static Argon2PasswordEncoder argon2(PasswordHashingProperties.Argon2 props, int iterations) {
+        return new Argon2PasswordEncoder(props.getSaltLength(), props.getHashLength(),
+                props.getParallelism(), props.getMemoryKib(), iterations);
+    }
+
+    private static Pbkdf2PasswordEncoder pbkdf2(PasswordHashingProperties.Pbkdf2 props, int iterations) {
+        return new Pbkdf2PasswordEncoder("", props.getSaltLength(), iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
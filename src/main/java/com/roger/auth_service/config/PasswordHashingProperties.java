@@ -0,0 +1,88 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.password-hashing")
+public class PasswordHashingProperties {
+    /**
+     * 专用 hash 线程数，0 = CPU 核数
+     */
+    private int threads = 0;
+
+    /**
+     * 排队上限，满了直接 503，不再往里堆
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 503 时返回给客户端的 Retry-After
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * hash 之后的 DB / 签发逻辑的线程数，0 = Hikari 连接池大小
+     */
+    private int continuationThreads = 0;
+
+    /**
+     * hash 之后的逻辑最多排多少个，满了同样 503
+     */
+    private int continuationQueueCapacity = 256;
+
+    /**
+     * 新密码用的算法；旧算法 / 旧参数的 hash 仍然能校验，登录成功后异步升级
+     */
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    /**
+     * 启动时按这个目标耗时校准 cost（只往上调，配置值是下限）；PT0S = 不校准
+     */
+    private Duration targetLatency = Duration.ofMillis(100);
+
+    /**
+     * 登录成功后，参数过时的 hash 是否异步重算
+     */
+    private boolean rehashOnLogin = true;
+
+    private Bcrypt bcrypt = new Bcrypt();
+    private Argon2 argon2 = new Argon2();
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+
+    public enum Algorithm {
+        BCRYPT, ARGON2ID, PBKDF2
+    }
+
+    @Getter
+    @Setter
+    public static class Bcrypt {
+        private int strength = 10;
+        private int maxStrength = 14;
+    }
+
+    @Getter
+    @Setter
+    public static class Argon2 {
+        private int memoryKib = 19 * 1024;
+        private int iterations = 2;
+        private int maxIterations = 10;
+        private int parallelism = 1;
+        private int saltLength = 16;
+        private int hashLength = 32;
+    }
+
+    @Getter
+    @Setter
+    public static class Pbkdf2 {
+        private int iterations = 310_000;
+        private int maxIterations = 2_000_000;
+        private int saltLength = 16;
+    }
+}
@@ -0,0 +1,29 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.project-registry")
+public class ProjectRegistryProperties {
+    /**
+     * 定时比对 auth_project 版本的间隔，其他节点改的项目最迟这么久生效
+     */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * 查不到的 project id 记多久，期间同一个 id 不再回源查库（挡住乱填 projectId 的请求）
+     */
+    private Duration negativeTtl = Duration.ofSeconds(5);
+
+    /**
+     * 最多记多少个查不到的 id（软上限）
+     */
+    private int negativeMaxSize = 10_000;
+}
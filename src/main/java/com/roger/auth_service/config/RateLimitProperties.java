@@ -0,0 +1,67 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /**
+     * 内存后端每个维度（ip / email / project）最多保留多少个 key（软上限）；
+     * 满了先清掉空闲的 bucket，还不够再清掉最接近满的一成
+     */
+    private int maxEntries = 200_000;
+
+    private Endpoint login = new Endpoint(
+            new Limit(30, Duration.ofMinutes(1)),
+            new Limit(10, Duration.ofMinutes(5)),
+            new Limit(500, Duration.ofSeconds(1)));
+
+    private Endpoint register = new Endpoint(
+            new Limit(10, Duration.ofMinutes(1)),
+            new Limit(5, Duration.ofMinutes(1)),
+            new Limit(100, Duration.ofSeconds(1)));
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private Limit perIp;
+        private Limit perEmail;
+        private Limit perProject;
+
+        public Endpoint() {
+        }
+
+        public Endpoint(Limit perIp, Limit perEmail, Limit perProject) {
+            this.perIp = perIp;
+            this.perEmail = perEmail;
+            this.perProject = perProject;
+        }
+    }
+
+    /**
+     * token bucket：最多攒 capacity 个，每 period 补满一次（匀速补充）
+     */
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity;
+        private Duration period;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+    }
+}
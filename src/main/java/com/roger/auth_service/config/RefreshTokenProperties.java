@@ -0,0 +1,57 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.refresh-token")
+public class RefreshTokenProperties {
+    /**
+     * 迁移期：SHA-256 digest 查不到时，再按旧的 MD5 hex 查一次。
+     * 所有旧 token 过期（30 天）后可以关掉。
+     */
+    private boolean legacyMd5Lookup = true;
+
+    /**
+     * 客户端开启 allowReuseGrace 时，刚被轮换掉的 token 在这个窗口内还能再换一次（网络重试）。
+     * 0 表示完全关闭
+     */
+    private Duration reuseGrace = Duration.ofSeconds(10);
+
+    /**
+     * 过期 / 已撤销 token 的后台清理
+     */
+    private Purge purge = new Purge();
+
+    @Getter
+    @Setter
+    public static class Purge {
+        private boolean enabled = true;
+
+        /**
+         * 两次清理之间的间隔
+         */
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * 每批最多删多少行
+         */
+        private int batchSize = 1000;
+
+        /**
+         * 批与批之间停多久，给 autovacuum / 正常流量让路
+         */
+        private Duration pauseBetweenBatches = Duration.ofMillis(200);
+
+        /**
+         * 过期或撤销超过这么久的行才删（保留一段时间方便排查）
+         */
+        private Duration retention = Duration.ofDays(7);
+    }
+}
@@ -0,0 +1,19 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.server-timing")
+public class ServerTimingProperties {
+    /**
+     * true: 每个请求按阶段（jwt / db / hash / sign）统计耗时，写到 Server-Timing 响应头，
+     * 并打一行 debug 日志（logger: com.roger.auth_service.filter.ServerTimingFilter）。
+     * 关闭时不包装 DataSource，也不注册过滤逻辑
+     */
+    private boolean enabled = false;
+}
@@ -0,0 +1,39 @@
+package com.roger.auth_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "auth.sql-log")
+public class SqlLogProperties {
+    /**
+     * 关闭后不计时、不记日志（没有其他 StatementListener 时 DataSource 也不包装）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 超过这个耗时的 SQL 一定记（WARN）
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * 其余 SQL 按这个比例抽样记（INFO），0 = 不记，1 = 全记
+     */
+    private double sampleRate = 0.0;
+
+    /**
+     * 待写日志的队列长度，满了直接丢弃（计数在 auth.sql.log.dropped）
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * 日志里 SQL 文本的最大长度，超出截断
+     */
+    private int maxSqlLength = 2_000;
+}
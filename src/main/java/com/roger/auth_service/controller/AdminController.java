@@ -0,0 +1,143 @@
+package com.roger.auth_service.controller;
+
+import com.roger.auth_service.dto.ApiResponse;
+import com.roger.auth_service.dto.ChangeRoleRequestDTO;
+import com.roger.auth_service.dto.RevokeResultDTO;
+import com.roger.auth_service.dto.UpdateProjectRequestDTO;
+import com.roger.auth_service.security.AdminAccess;
+import com.roger.auth_service.service.AccessTokenRevocationService;
+import com.roger.auth_service.service.MembershipService;
+import com.roger.auth_service.service.ProjectRegistry;
+import com.roger.auth_service.service.ProjectService;
+import com.roger.auth_service.service.RegisteredProject;
+import com.roger.auth_service.service.UserAdminService;
+import com.roger.auth_service.service.RefreshTokenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+// 项目管理员只能操作自己 token 里的项目（AdminAccess）；跨项目操作需要 PLATFORM_ADMIN
+@Slf4j
+@RestController
+@RequestMapping("/v1/admin")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('OWNER', 'ADMIN')")
+public class AdminController {
+
+        private final RefreshTokenService refreshTokenService;
+        private final ProjectRegistry projectRegistry;
+        private final ProjectService projectService;
+        private final MembershipService membershipService;
+        private final AccessTokenRevocationService accessTokenRevocationService;
+        private final UserAdminService userAdminService;
+        private final AdminAccess adminAccess;
+
+        // 撤销单个 access token（按 jti），exp 之前的请求都会被拒绝；只对调用方项目签发的 token 生效
+        @PostMapping("/access-tokens/{jti}/revoke")
+        public ResponseEntity<ApiResponse<Void>> revokeAccessToken(
+                        @PathVariable UUID jti,
+                        @RequestParam(required = false) String projectId,
+                        Authentication authentication) {
+                String scope = adminAccess.scopeProject(authentication, projectId);
+                log.info("Admin revoke access token jti={} projectId={}", jti, scope);
+                accessTokenRevocationService.revokeToken(jti, scope);
+                return ResponseEntity.ok(ApiResponse.ok(null));
+        }
+
+        // 撤销某个用户此刻之前在调用方项目下签发的 access token；平台管理员不带 projectId 时撤销所有项目的
+        @PostMapping("/users/{userId}/access-tokens/revoke")
+        public ResponseEntity<ApiResponse<Void>> revokeUserAccessTokens(
+                        @PathVariable UUID userId,
+                        @RequestParam(required = false) String projectId,
+                        Authentication authentication) {
+                String scope = adminAccess.scopeProject(authentication, projectId);
+                log.info("Admin revoke access tokens userId={} projectId={}", userId, scope);
+                accessTokenRevocationService.revokeAllForUser(userId, scope);
+                return ResponseEntity.ok(ApiResponse.ok(null));
+        }
+
+        // 撤销某个用户在调用方项目下的 refresh token；平台管理员不带 projectId 时撤销所有项目的
+        @PostMapping("/users/{userId}/refresh-tokens/revoke")
+        public ResponseEntity<ApiResponse<RevokeResultDTO>> revokeUserRefreshTokens(
+                        @PathVariable UUID userId,
+                        @RequestParam(required = false) String projectId,
+                        Authentication authentication) {
+                String scope = adminAccess.scopeProject(authentication, projectId);
+                log.info("Admin revoke refresh tokens userId={} projectId={}", userId, scope);
+
+                int revoked = scope == null
+                                ? refreshTokenService.revokeAll(userId)
+                                : refreshTokenService.revokeAll(userId, scope);
+
+                return ResponseEntity.ok(ApiResponse.ok(new RevokeResultDTO(revoked)));
+        }
+
+        // 停用账号：撤销所有项目的 token，所有节点的成员关系缓存随之失效。账号跨项目，只有平台管理员能操作
+        @PostMapping("/users/{userId}/disable")
+        @PreAuthorize("hasRole('PLATFORM_ADMIN')")
+        public ResponseEntity<ApiResponse<Void>> disableUser(@PathVariable UUID userId) {
+                log.info("Admin disable user userId={}", userId);
+                userAdminService.disable(userId);
+                return ResponseEntity.ok(ApiResponse.ok(null));
+        }
+
+        // 软删除账号，效果同停用
+        @DeleteMapping("/users/{userId}")
+        @PreAuthorize("hasRole('PLATFORM_ADMIN')")
+        public ResponseEntity<ApiResponse<Void>> deleteUser(@PathVariable UUID userId) {
+                log.info("Admin delete user userId={}", userId);
+                userAdminService.delete(userId);
+                return ResponseEntity.ok(ApiResponse.ok(null));
+        }
+
+        // 撤销某个项目下所有用户的 refresh token
+        @PostMapping("/projects/{projectId}/refresh-tokens/revoke")
+        @PreAuthorize("hasAnyRole('OWNER', 'ADMIN') and @adminAccess.canManageProject(authentication, #projectId)")
+        public ResponseEntity<ApiResponse<RevokeResultDTO>> revokeProjectRefreshTokens(
+                        @PathVariable String projectId) {
+                log.info("Admin revoke refresh tokens projectId={}", projectId);
+
+                int revoked = refreshTokenService.revokeAllForProject(projectId);
+
+                return ResponseEntity.ok(ApiResponse.ok(new RevokeResultDTO(revoked)));
+        }
+
+        // 修改用户在项目里的角色，所有节点的成员关系缓存随之失效。不能改自己的，ADMIN 不能授予 / 收回 OWNER
+        @PutMapping("/projects/{projectId}/members/{userId}/role")
+        @PreAuthorize("hasAnyRole('OWNER', 'ADMIN') and @adminAccess.canManageProject(authentication, #projectId)")
+        public ResponseEntity<ApiResponse<Void>> changeMemberRole(
+                        @PathVariable String projectId,
+                        @PathVariable UUID userId,
+                        @Valid @RequestBody ChangeRoleRequestDTO req,
+                        Authentication authentication) {
+                log.info("Admin change role projectId={} userId={} role={}", projectId, userId, req.getRole());
+                membershipService.changeRole(adminAccess.callerId(authentication), adminAccess.callerRole(authentication),
+                                userId, projectId, req.getRole());
+                return ResponseEntity.ok(ApiResponse.ok(null));
+        }
+
+        // 修改 / 停用项目；本节点的项目注册表在提交后立即失效
+        @PutMapping("/projects/{projectId}")
+        @PreAuthorize("hasRole('PLATFORM_ADMIN')")
+        public ResponseEntity<ApiResponse<RegisteredProject>> updateProject(
+                        @PathVariable String projectId,
+                        @Valid @RequestBody UpdateProjectRequestDTO req) {
+                log.info("Admin update project projectId={} active={}", projectId, req.getActive());
+                return ResponseEntity.ok(ApiResponse.ok(projectService.update(projectId, req)));
+        }
+
+        // 直接改了 auth_project 之后，让本节点立即重载项目注册表（其他节点靠定时版本比对）
+        @PostMapping("/projects/registry/reload")
+        @PreAuthorize("hasRole('PLATFORM_ADMIN')")
+        public ResponseEntity<ApiResponse<Void>> reloadProjectRegistry() {
+                log.info("Admin reload project registry");
+                projectRegistry.reloadAll();
+                return ResponseEntity.ok(ApiResponse.ok(null));
+        }
+}
@@ -1,30 +1,25 @@
 package com.roger.auth_service.controller;
 
 import com.roger.auth_service.dto.*;
-import com.roger.auth_service.entity.AuthProject;
-import com.roger.auth_service.entity.AuthRefreshToken;
-import com.roger.auth_service.entity.AuthUser;
-import com.roger.auth_service.entity.AuthUserProjectMembership;
 import com.roger.auth_service.exception.InvalidRefreshTokenException;
-import com.roger.auth_service.exception.ProjectAccessDeniedException;
-import com.roger.auth_service.exception.ProjectNotFoundException;
-import com.roger.auth_service.repo.AuthProjectRepository;
-import com.roger.auth_service.repo.AuthUserProjectMembershipRepository;
+import com.roger.auth_service.service.AuthRateLimiter;
 import com.roger.auth_service.service.AuthService;
-import com.roger.auth_service.service.JwtService;
-import com.roger.auth_service.service.RefreshTokenService;
+import com.roger.auth_service.service.TokenIntrospector;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import com.roger.auth_service.annotation.ClientIp;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -33,47 +28,52 @@ import java.util.List;
 public class AuthController {
 
         private final AuthService authService;
-        private final JwtService jwtService;
-        private final RefreshTokenService refreshTokenService;
-        private final AuthUserProjectMembershipRepository membershipRepository;
-        private final AuthProjectRepository projectRepository;
+        private final TokenIntrospector tokenIntrospector;
+        private final AuthRateLimiter authRateLimiter;
 
         @PostMapping("/register")
-        public ResponseEntity<ApiResponse<AuthTokensDTO>> register(
+        public CompletableFuture<ResponseEntity<ApiResponse<AuthTokensDTO>>> register(
                         @Valid @RequestBody RegisterRequestDTO req,
                         @RequestHeader(value = "User-Agent", required = false) String ua,
                         @ClientIp String clientIp) {
                 log.info("Register attempt email={} projectId={}", req.getEmail(), req.getProjectId());
 
-                AuthTokensDTO tokens = authService.register(
+                // 超限直接 429，不进 AuthService（不开事务、不查库、不做 hash）
+                authRateLimiter.checkRegister(clientIp, req.getEmail(), req.getProjectId());
+
+                // 异步：hash 期间释放请求线程
+                return authService.register(
                                 req.getEmail(),
                                 req.getPassword(),
                                 req.getProjectId(),
                                 ua,
-                                clientIp);
-
-                return ResponseEntity.ok(ApiResponse.ok(tokens));
+                                clientIp)
+                                .thenApply(tokens -> ResponseEntity.ok(ApiResponse.ok(tokens)));
         }
 
         @PostMapping("/login")
-        public ResponseEntity<ApiResponse<AuthTokensDTO>> login(
+        public CompletableFuture<ResponseEntity<ApiResponse<AuthTokensDTO>>> login(
                         @Valid @RequestBody LoginRequestDTO req,
                         @RequestHeader(value = "User-Agent", required = false) String ua,
                         @ClientIp String clientIp) {
                 log.info("Login attempt email={} projectId={}", req.getEmail(), req.getProjectId());
 
-                AuthTokensDTO tokens = authService.login(
+                // 超限直接 429，不进 AuthService（不开事务、不查库、不做 hash）
+                authRateLimiter.checkLogin(clientIp, req.getEmail(), req.getProjectId());
+
+                // 异步：hash 期间释放请求线程
+                return authService.login(
                                 req.getEmail(),
                                 req.getPassword(),
                                 req.getProjectId(),
                                 ua,
-                                clientIp);
-
-                return ResponseEntity.ok(ApiResponse.ok(tokens));
+                                clientIp)
+                                .thenApply(tokens -> ResponseEntity.ok(ApiResponse.ok(tokens)));
         }
 
+        // stateless 模式下是 JwtPrincipal，DB 模式下是 AuthUser
         @GetMapping("/me")
-        public ResponseEntity<ApiResponse<AuthUser>> me(@AuthenticationPrincipal AuthUser user) {
+        public ResponseEntity<ApiResponse<UserDetails>> me(@AuthenticationPrincipal UserDetails user) {
                 return ResponseEntity.ok(ApiResponse.ok(user));
         }
 
@@ -87,33 +87,16 @@ public class AuthController {
                         throw new InvalidRefreshTokenException("Missing refresh token cookie");
                 }
 
-                // 1. 从 cookie 里的 refresh_token 做 consume（校验 + revoked）
-                AuthRefreshToken rt = refreshTokenService.consume(refreshToken, req.getProjectId());
-
-                // 2. 查用户/项目/角色
-                AuthUser user = authService.getUserById(rt.getUserId());
-
-                AuthProject project = projectRepository.findById(rt.getProjectId())
-                                .orElseThrow(() -> new ProjectNotFoundException(rt.getProjectId()));
-
-                AuthUserProjectMembership membership = membershipRepository
-                                .findByUserAndProject(user, project)
-                                .orElseThrow(() -> new ProjectAccessDeniedException(rt.getProjectId()));
-
-                List<String> roles = List.of(membership.getRole().name());
-
-                // 3. 生成新的 access token
-                String newAccessToken = jwtService.generateAccessToken(
-                                user.getId(), user.getEmail(), rt.getProjectId(), roles);
-
-                // 4. 生成新的 refresh token，并写回 Cookie（HttpOnly）
-                String newRefreshToken = refreshTokenService.generateAndStore(
-                                user.getId(),
-                                rt.getProjectId(),
+                // 轮换 refresh token + 查角色 + 签 access token（共 2 条 SQL）
+                AuthTokensDTO tokens = authService.refresh(
+                                refreshToken,
+                                req.getProjectId(),
+                                req.isAllowReuseGrace(),
                                 ua,
                                 clientIp);
 
-                ResponseCookie refreshCookie = ResponseCookie.from("refresh_token", newRefreshToken)
+                // 新的 refresh token 写回 Cookie（HttpOnly）
+                ResponseCookie refreshCookie = ResponseCookie.from("refresh_token", tokens.getRefreshToken())
                                 .httpOnly(true)
                                 .secure(true) // dev 可以先 false，生产必须 true
                                 .sameSite("Lax") // 或 "Strict"
@@ -121,12 +104,26 @@ public class AuthController {
                                 .maxAge(Duration.ofDays(30))
                                 .build();
 
-                // 5. 把新的 access token 放在 body，新的 refresh token 只放 cookie，不再给前端
-                AuthTokensDTO dto = new AuthTokensDTO(newAccessToken, null);
+                // 把新的 access token 放在 body，新的 refresh token 只放 cookie，不再给前端
+                AuthTokensDTO dto = new AuthTokensDTO(tokens.getAccessToken(), null);
 
                 return ResponseEntity.ok()
                                 .header(HttpHeaders.SET_COOKIE, refreshCookie.toString())
                                 .body(ApiResponse.ok(dto));
         }
 
+
+        // RFC 7662：网关用 form 参数 token=... 单个查询，直接返回标准格式（不包 ApiResponse）；
+        // 调用方要带 auth.introspection.clients 里的 client credentials，见 SecurityConfig
+        @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+        public IntrospectionDTO introspect(@RequestParam("token") String token) {
+                return tokenIntrospector.introspect(token);
+        }
+
+        // 批量：一次网关往返覆盖一批请求，结果顺序和请求里的 tokens 一致；
+        // 每一项都是 RFC 7662 的响应格式，同样不包 ApiResponse
+        @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_JSON_VALUE)
+        public List<IntrospectionDTO> introspectBatch(@Valid @RequestBody IntrospectRequestDTO req) {
+                return tokenIntrospector.introspectAll(req.getTokens());
+        }
 }
@@ -0,0 +1,45 @@
+package com.roger.auth_service.controller;
+
+import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.service.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * 公钥发布（RFC 7517 JWK Set）。资源服务按 kid 取公钥本地校验 access token，不用再回调我们。
+ * <p>
+ * 不包 ApiResponse：JWKS 客户端只认标准格式。内容在启动时算好，带强 ETag，
+ * If-None-Match 命中直接 304。
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+        private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+        private final JwtKeyRing keyRing;
+        private final JwtProperties jwtProperties;
+
+        @GetMapping(value = "/.well-known/jwks.json")
+        public ResponseEntity<byte[]> jwks(WebRequest request) {
+                CacheControl cacheControl = CacheControl.maxAge(jwtProperties.getJwksMaxAge()).cachePublic();
+
+                if (request.checkNotModified(keyRing.jwksETag())) {
+                        return ResponseEntity.status(304)
+                                        .eTag(keyRing.jwksETag())
+                                        .cacheControl(cacheControl)
+                                        .build();
+                }
+
+                return ResponseEntity.ok()
+                                .eTag(keyRing.jwksETag())
+                                .cacheControl(cacheControl)
+                                .contentType(JWK_SET)
+                                .body(keyRing.jwksJson());
+        }
+}
@@ -0,0 +1,11 @@
+package com.roger.auth_service.dto;
+
+import com.roger.auth_service.entity.ProjectRole;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ChangeRoleRequestDTO {
+    @NotNull
+    private ProjectRole role;
+}
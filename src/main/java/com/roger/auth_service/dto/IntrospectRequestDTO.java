@@ -0,0 +1,15 @@
+package com.roger.auth_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class IntrospectRequestDTO {
+    /**
+     * 要校验的 access token，上限见 auth.introspection.max-batch-size
+     */
+    @NotEmpty
+    private List<String> tokens;
+}
@@ -0,0 +1,30 @@
+package com.roger.auth_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * RFC 7662 introspection 结果；active=false 时其他字段都不返回
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntrospectionDTO {
+
+    private boolean active;
+    private String sub;
+    private String username;
+    @JsonProperty("project_id")
+    private String projectId;
+    private List<String> roles;
+    private Long iat;
+    private Long exp;
+    @JsonProperty("token_type")
+    private String tokenType;
+
+    public static IntrospectionDTO inactive() {
+        return new IntrospectionDTO();
+    }
+}
@@ -5,5 +5,10 @@ import lombok.Data;
 @Data
 public class RefreshRequestDTO {
     private String projectId;
+
+    /**
+     * 重试时允许在 reuse grace 窗口内复用刚被轮换掉的 refresh token
+     */
+    private boolean allowReuseGrace;
 }
 
@@ -0,0 +1,10 @@
+package com.roger.auth_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RevokeResultDTO {
+    private int revoked;
+}
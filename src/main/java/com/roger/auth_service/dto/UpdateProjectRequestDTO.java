@@ -0,0 +1,21 @@
+package com.roger.auth_service.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 修改项目；不传的字段保持不变
+ */
+@Data
+public class UpdateProjectRequestDTO {
+    @Size(min = 1, max = 255)
+    private String name;
+
+    @Size(max = 255)
+    private String description;
+
+    /**
+     * false = 停用：之后 register / login / refresh 都会被拒绝
+     */
+    private Boolean active;
+}
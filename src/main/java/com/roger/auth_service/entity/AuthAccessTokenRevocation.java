@@ -0,0 +1,52 @@
+package com.roger.auth_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * access token 撤销记录，两种：
+ * <ul>
+ *   <li>jti 不为空：撤销单个 token</li>
+ *   <li>jti 为空：撤销 userId 在 revokedBefore（含）之前签发的所有 token</li>
+ * </ul>
+ * projectId 不为空时只对这个项目的 token 生效，为空对所有项目生效（平台管理员）。
+ * expiresAt 之后相关 token 都已经过期，记录可以删除。
+ */
+@Entity
+@Table(name = "auth_access_token_revocation",
+        indexes = {
+                @Index(name = "idx_at_revocation_created", columnList = "createdAt"),
+                @Index(name = "idx_at_revocation_expires", columnList = "expiresAt")
+        })
+@Getter
+@Setter
+public class AuthAccessTokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private UUID jti;
+
+    @Column
+    private UUID userId;
+
+    @Column
+    private Instant revokedBefore;
+
+    @Column(length = 64)
+    private String projectId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @CreationTimestamp
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -13,8 +13,11 @@ import java.util.UUID;
 @Table(name = "auth_refresh_token",
         indexes = {
                 @Index(name = "idx_refresh_user", columnList = "userId"),
-                @Index(name = "idx_refresh_expires", columnList = "expiresAt")
+                @Index(name = "idx_refresh_expires", columnList = "expiresAt"),
+                @Index(name = "uk_refresh_token_digest", columnList = "tokenDigest", unique = true),
+                @Index(name = "idx_refresh_revoked_at", columnList = "revokedAt")
         })
+// 表结构由 Flyway 管理（db/migration），部分索引（token_hash、未撤销的 token）见 V5
 @Getter
 @Setter
 public class AuthRefreshToken {
@@ -30,7 +33,16 @@ public class AuthRefreshToken {
     @Column(nullable = false, length = 64)
     private String projectId;
 
-    @Column(nullable = false)
+    /**
+     * SHA-256(plain token)，32 字节定长 bytea，唯一索引
+     */
+    @Column(length = 32)
+    private byte[] tokenDigest;
+
+    /**
+     * 旧格式：MD5 hex。新 token 不再写，只为迁移期的老数据保留
+     */
+    @Column
     private String tokenHash;
 
     @Column(nullable = false)
@@ -42,6 +54,18 @@ public class AuthRefreshToken {
     @Column
     private Instant revokedAt;
 
+    /**
+     * 因为轮换（/refresh）被撤销的时间；reuse grace 只认这个，管理员撤销会把它清空
+     */
+    @Column
+    private Instant rotatedAt;
+
+    /**
+     * 轮换时接替它的新 token；reuse grace 重放时用来作废上一次换出的 token
+     */
+    @Column
+    private UUID replacedBy;
+
     @CreationTimestamp
     @Column(nullable = false)
     private Instant createdAt;
@@ -19,7 +19,7 @@ import java.util.UUID;
 @Table(
         name = "auth_user",
         indexes = {
-                @Index(name = "idx_auth_user_email", columnList = "email"),
+                // email 查询走 uk_auth_user_email 的唯一索引
                 @Index(name = "idx_auth_user_active", columnList = "active")
         },
         uniqueConstraints = {
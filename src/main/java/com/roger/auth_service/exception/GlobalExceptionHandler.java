@@ -1,10 +1,16 @@
 package com.roger.auth_service.exception;
 
 import com.roger.auth_service.dto.ApiResponse;
+import com.roger.auth_service.service.AuthMetrics;
 import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -12,13 +18,19 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
+import java.sql.SQLTransientConnectionException;
+
 import java.util.HashMap;
 import java.util.Map;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    // 失败结果计数：auth.requests{operation, outcome}
+    private final AuthMetrics authMetrics;
+
     // 1. 方法不支持，例如用 GET 调 /login（只支持 POST）
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     public ResponseEntity<ApiResponse<Void>> handleMethodNotSupported(HttpRequestMethodNotSupportedException ex) {
@@ -49,6 +61,7 @@ public class GlobalExceptionHandler {
     // 2. 请求体无法解析（JSON 错了、body 为空但用了 @RequestBody）
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ApiResponse<Void>> handleMessageNotReadable(HttpMessageNotReadableException ex) {
+        authMetrics.recordFailure("bad_request");
         log.warn("Bad request body: {}", ex.getMessage());
         return ResponseEntity
                 .badRequest()
@@ -60,6 +73,7 @@ public class GlobalExceptionHandler {
     // 3. @Valid 校验失败（DTO 上的 @NotBlank, @Email 等）
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Void>> handleValidation(MethodArgumentNotValidException ex) {
+        authMetrics.recordFailure("validation_error");
         Map<String, String> fieldErrors = new HashMap<>();
         for (FieldError error : ex.getBindingResult().getFieldErrors()) {
             fieldErrors.put(error.getField(), error.getDefaultMessage());
@@ -77,6 +91,7 @@ public class GlobalExceptionHandler {
     // 4. 例如 @RequestParam / @PathVariable 校验失败
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ApiResponse<Void>> handleConstraintViolation(ConstraintViolationException ex) {
+        authMetrics.recordFailure("validation_error");
         return ResponseEntity
                 .badRequest()
                 .body(ApiResponse.error("CONSTRAINT_VIOLATION",
@@ -87,6 +102,7 @@ public class GlobalExceptionHandler {
     // 5. 业务异常：登录失败（用户/密码错误）
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<ApiResponse<Void>> handleInvalidCredentials(InvalidCredentialsException ex) {
+        authMetrics.recordFailure("invalid_credentials");
         log.warn("Invalid credentials: {}", ex.getMessage());
         return ResponseEntity
                 .status(401)
@@ -98,6 +114,7 @@ public class GlobalExceptionHandler {
     // 6. 业务异常：项目不存在
     @ExceptionHandler(ProjectNotFoundException.class)
     public ResponseEntity<ApiResponse<Void>> handleProjectNotFound(ProjectNotFoundException ex) {
+        authMetrics.recordFailure("project_not_found");
         log.warn("Project not found: {}", ex.getMessage());
         return ResponseEntity
                 .status(404)
@@ -106,9 +123,21 @@ public class GlobalExceptionHandler {
                         null));
     }
 
+    // 业务异常：管理接口操作的用户不存在
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleUserNotFound(UserNotFoundException ex) {
+        log.warn("User not found: {}", ex.getMessage());
+        return ResponseEntity
+                .status(404)
+                .body(ApiResponse.error("USER_NOT_FOUND",
+                        ex.getMessage(),
+                        null));
+    }
+
     // 7. 业务异常：用户对项目无权限
     @ExceptionHandler(ProjectAccessDeniedException.class)
     public ResponseEntity<ApiResponse<Void>> handleProjectAccessDenied(ProjectAccessDeniedException ex) {
+        authMetrics.recordFailure("project_denied");
         log.warn("Project access denied: {}", ex.getMessage());
         return ResponseEntity
                 .status(403)
@@ -117,9 +146,33 @@ public class GlobalExceptionHandler {
                         null));
     }
 
+    // 业务异常：改自己的角色、ADMIN 授予 / 收回 OWNER
+    @ExceptionHandler(RoleChangeNotAllowedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRoleChangeNotAllowed(RoleChangeNotAllowedException ex) {
+        log.warn("Role change rejected: {}", ex.getMessage());
+        return ResponseEntity
+                .status(403)
+                .body(ApiResponse.error("ROLE_CHANGE_NOT_ALLOWED",
+                        ex.getMessage(),
+                        null));
+    }
+
+    // 业务异常：项目已停用
+    @ExceptionHandler(ProjectInactiveException.class)
+    public ResponseEntity<ApiResponse<Void>> handleProjectInactive(ProjectInactiveException ex) {
+        authMetrics.recordFailure("project_inactive");
+        log.warn("Project inactive: {}", ex.getMessage());
+        return ResponseEntity
+                .status(403)
+                .body(ApiResponse.error("PROJECT_INACTIVE",
+                        ex.getMessage(),
+                        null));
+    }
+
     // 8. 业务异常：邮箱已存在
     @ExceptionHandler(EmailAlreadyUsedException.class)
     public ResponseEntity<ApiResponse<Void>> handleEmailUsed(EmailAlreadyUsedException ex) {
+        authMetrics.recordFailure("email_in_use");
         log.warn("Email already used: {}", ex.getMessage());
         return ResponseEntity
                 .status(409)
@@ -130,6 +183,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(InvalidRefreshTokenException.class)
     public ResponseEntity<ApiResponse<Void>> handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        authMetrics.recordFailure(ex.isExpired() ? "refresh_expired" : "refresh_invalid");
         log.warn("Invalid refresh token: {}", ex.getMessage());
         return ResponseEntity
                 .status(401)
@@ -140,9 +194,76 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    // 限流：超过 IP / email / 项目的额度
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        authMetrics.recordFailure("rate_limited");
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity
+                .status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ApiResponse.error("RATE_LIMITED",
+                        ex.getMessage(),
+                        null));
+    }
+
+    // introspection 一次带的 token 太多
+    @ExceptionHandler(IntrospectionBatchTooLargeException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIntrospectionBatchTooLarge(IntrospectionBatchTooLargeException ex) {
+        log.warn("Introspection batch rejected: {}", ex.getMessage());
+        return ResponseEntity
+                .badRequest()
+                .body(ApiResponse.error("BATCH_TOO_LARGE",
+                        ex.getMessage(),
+                        null));
+    }
+
+    // 密码 hash 线程池满了：快速失败，让客户端稍后重试
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        authMetrics.recordFailure("server_busy");
+        log.warn("Password hashing saturated: {}", ex.getMessage());
+        return ResponseEntity
+                .status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(ApiResponse.error("SERVER_BUSY",
+                        ex.getMessage(),
+                        null));
+    }
+
+    // connection-timeout 内从连接池借不到连接（数据库过载或连不上）：503 让客户端稍后重试，不算 500。
+    // @Transactional 里是 CannotCreateTransactionException，JdbcTemplate 直接用时是 CannotGetJdbcConnectionException
+    @ExceptionHandler({
+            CannotCreateTransactionException.class,
+            CannotGetJdbcConnectionException.class,
+            SQLTransientConnectionException.class
+    })
+    public ResponseEntity<ApiResponse<Void>> handleDatabaseUnavailable(Exception ex) {
+        authMetrics.recordFailure("database_unavailable");
+        log.warn("Database connection unavailable: {}", ex.getMessage());
+        return ResponseEntity
+                .status(503)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("SERVICE_UNAVAILABLE",
+                        "Service temporarily unavailable, please retry",
+                        null));
+    }
+
+    // 权限不足（@PreAuthorize 拒绝），否则会落到下面的 500
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleAccessDenied(AccessDeniedException ex) {
+        log.warn("Access denied: {}", ex.getMessage());
+        return ResponseEntity
+                .status(403)
+                .body(ApiResponse.error("ACCESS_DENIED",
+                        "Access denied",
+                        null));
+    }
+
     // 9. 最后的兜底：真正未预料到的异常，才是 500
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleAny(Exception ex) {
+        authMetrics.recordFailure("error");
         // 这里确实是我们没预料到的错误，需要重点关注
         log.error("Unhandled exception", ex);
         return ResponseEntity
@@ -0,0 +1,7 @@
+package com.roger.auth_service.exception;
+
+public class IntrospectionBatchTooLargeException extends RuntimeException {
+    public IntrospectionBatchTooLargeException(int size, int max) {
+        super("Too many tokens in one introspection request: " + size + " (max " + max + ")");
+    }
+}
@@ -1,7 +1,19 @@
 package com.roger.auth_service.exception;
 
+import lombok.Getter;
+
+@Getter
 public class InvalidRefreshTokenException extends RuntimeException {
+
+    // 过期和无效/已撤销分开计数，方便看客户端是不是 refresh 太晚
+    private final boolean expired;
+
     public InvalidRefreshTokenException(String message) {
+        this(message, false);
+    }
+
+    public InvalidRefreshTokenException(String message, boolean expired) {
         super(message);
+        this.expired = expired;
     }
 }
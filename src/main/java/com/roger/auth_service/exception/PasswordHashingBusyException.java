@@ -0,0 +1,16 @@
+package com.roger.auth_service.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingBusyException(Duration retryAfter) {
+        super("Server is busy, please retry later");
+        this.retryAfter = retryAfter;
+    }
+}
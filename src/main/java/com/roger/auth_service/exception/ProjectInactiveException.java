@@ -0,0 +1,7 @@
+package com.roger.auth_service.exception;
+
+public class ProjectInactiveException extends RuntimeException {
+    public ProjectInactiveException(String projectId) {
+        super("Project is inactive: " + projectId);
+    }
+}
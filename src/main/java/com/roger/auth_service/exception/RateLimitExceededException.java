@@ -0,0 +1,16 @@
+package com.roger.auth_service.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(Duration retryAfter) {
+        super("Too many requests, please retry later");
+        this.retryAfter = retryAfter;
+    }
+}
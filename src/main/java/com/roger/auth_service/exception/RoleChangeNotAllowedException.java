@@ -0,0 +1,7 @@
+package com.roger.auth_service.exception;
+
+public class RoleChangeNotAllowedException extends RuntimeException {
+    public RoleChangeNotAllowedException(String message) {
+        super(message);
+    }
+}
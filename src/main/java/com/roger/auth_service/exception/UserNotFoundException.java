@@ -0,0 +1,9 @@
+package com.roger.auth_service.exception;
+
+import java.util.UUID;
+
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(UUID userId) {
+        super("User not found: " + userId);
+    }
+}
@@ -1,29 +1,45 @@
 package com.roger.auth_service.filter;
 
+import com.roger.auth_service.config.JwtProperties;
 import com.roger.auth_service.entity.AuthUser;
+import com.roger.auth_service.security.AdminAccess;
+import com.roger.auth_service.security.JwtPrincipal;
+import com.roger.auth_service.security.TokenAuthenticationDetails;
+import com.roger.auth_service.security.VerifiedToken;
+import com.roger.auth_service.service.AccessTokenRevocationIndex;
 import com.roger.auth_service.service.AuthService;
 import com.roger.auth_service.service.JwtService;
+import com.roger.auth_service.service.RequestTimings;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final AuthService authService;
+    private final JwtProperties jwtProperties;
+    private final AccessTokenRevocationIndex revocationIndex;
+    private final AdminAccess adminAccess;
 
     @Override
     protected void doFilterInternal(
@@ -39,31 +55,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
+        VerifiedToken verified;
+        long verifyStart = System.nanoTime();
+        try {
+            // 只解析一次：一次 HMAC 校验 + 一次 base64/JSON 解码
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Invalid JWT token: {}", e.getMessage());
             filterChain.doFilter(request, response);
             return;
+        } finally {
+            RequestTimings.record(RequestTimings.Phase.JWT, System.nanoTime() - verifyStart);
         }
 
-        UUID userId = jwtService.getUserIdFromToken(token);
+        // 撤销检查不缓存：每次都查内存索引（无锁、不分配）
+        if (revocationIndex.isRevoked(verified)) {
+            log.warn("Revoked JWT token userId={} jti={}", verified.userId(), verified.jti());
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-        // load from DB
-        AuthUser user = authService.getUserById(userId);
+        List<GrantedAuthority> authorities = JwtPrincipal.toAuthorities(verified.roles());
+        if (adminAccess.isPlatformAdmin(verified)) {
+            authorities = new ArrayList<>(authorities);
+            authorities.add(new SimpleGrantedAuthority(AdminAccess.PLATFORM_ADMIN_AUTHORITY));
+        }
 
-        // (optionally) extract roles/project from token and create authorities
-        // List<GrantedAuthority> authorities = rolesFromToken(...);
+        UserDetails principal;
+        if (jwtProperties.isStatelessPrincipal()) {
+            // stateless: principal 直接来自 claims，不查库
+            principal = verified.toPrincipal();
+        } else {
+            // load from DB
+            AuthUser user = authService.getUserById(verified.userId());
+            principal = user;
+        }
 
         UsernamePasswordAuthenticationToken authentication =
                 new UsernamePasswordAuthenticationToken(
-                        user,
+                        principal,
                         null,
-                        user.getAuthorities() // or authorities from JWT
+                        authorities // project roles from JWT
                 );
 
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        // 调用方的 project_id / 角色从这里取（AuthUser 上没有项目）
+        authentication.setDetails(new TokenAuthenticationDetails(request, verified));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         filterChain.doFilter(request, response);
     }
 }
-
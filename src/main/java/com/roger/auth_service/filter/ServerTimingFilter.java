@@ -0,0 +1,121 @@
+package com.roger.auth_service.filter;
+
+import com.roger.auth_service.config.ServerTimingProperties;
+import com.roger.auth_service.service.RequestTimings;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 按阶段统计单个请求的耗时（jwt / db / hash / sign / total），写到 Server-Timing 响应头，
+ * 并打一行 key=value 的 debug 日志，用来定位某一次慢登录的时间花在哪。
+ * <p>
+ * 放在最外层（早于 Spring Security），JWT 校验也算在内。
+ * 响应头要在 commit 之前写：commit 时由 {@link TimingResponse} 写入；没有触发 commit 的在过滤器返回前补上。
+ * login / register 是异步的，结果在 async dispatch 里写回，这时同一个 wrapper 仍然在用，照样能写头。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private final boolean enabled;
+
+    public ServerTimingFilter(ServerTimingProperties properties) {
+        this.enabled = properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RequestTimings timings = new RequestTimings();
+        TimingResponse timed = new TimingResponse(response, timings);
+        RequestTimings previous = RequestTimings.bind(timings);
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            RequestTimings.bind(previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LogOnComplete(request, response, timings));
+            } else {
+                timed.writeHeader();
+                logTimings(request, response, timings);
+            }
+        }
+    }
+
+    private static void logTimings(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        if (log.isDebugEnabled()) {
+            log.debug("request timing method={} path={} status={} {}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), timings.toLogFields());
+        }
+    }
+
+    private static final class TimingResponse extends OnCommittedResponseWrapper {
+        private final RequestTimings timings;
+        private boolean written;
+
+        TimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(HEADER, timings.toHeaderValue());
+        }
+    }
+
+    private record LogOnComplete(HttpServletRequest request,
+                                 HttpServletResponse response,
+                                 RequestTimings timings) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            logTimings(request, response, timings);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
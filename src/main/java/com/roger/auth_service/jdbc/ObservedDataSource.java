@@ -0,0 +1,126 @@
+package com.roger.auth_service.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 给 Connection / Statement 套一层 JDK 动态代理，每次 execute* 计时后通知 {@link StatementListener}。
+ * <p>
+ * 继承 DelegatingDataSource：actuator 的连接池指标 / health 仍然能 unwrap 到底下的 HikariDataSource。
+ */
+public class ObservedDataSource extends DelegatingDataSource {
+
+    private final StatementListener[] listeners;
+
+    public ObservedDataSource(DataSource target, List<StatementListener> listeners) {
+        super(target);
+        this.listeners = listeners.toArray(new StatementListener[0]);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                ObservedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private void notifyListeners(String sql, long elapsedNanos, Throwable failure) {
+        for (StatementListener listener : listeners) {
+            listener.afterExecute(sql, elapsedNanos, failure);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> ObservedDataSource.invoke(target, method, args);
+            };
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, result, null);
+                case "prepareStatement" -> statement(PreparedStatement.class, result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, result, (String) args[0]);
+                default -> result;
+            };
+        }
+
+        private Object statement(Class<?> type, Object statement, String sql) {
+            return Proxy.newProxyInstance(
+                    ObservedDataSource.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Object target;
+        private final String preparedSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (!method.getName().startsWith("execute")) {
+                return ObservedDataSource.invoke(target, method, args);
+            }
+            // Statement.execute*(sql, ...) 带 SQL；PreparedStatement.execute*() 用 prepare 时的 SQL
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                return ObservedDataSource.invoke(target, method, args);
+            } catch (Throwable t) {
+                failure = t;
+                throw t;
+            } finally {
+                notifyListeners(sql, System.nanoTime() - start, failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.roger.auth_service.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 有 enabled 的 {@link StatementListener} 时，把 DataSource bean 包成 {@link ObservedDataSource}
+ */
+@Slf4j
+public class ObservedDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<StatementListener> listeners;
+
+    public ObservedDataSourcePostProcessor(ObjectProvider<StatementListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ObservedDataSource) {
+            return bean;
+        }
+        List<StatementListener> enabled = listeners.orderedStream()
+                .filter(StatementListener::isEnabled)
+                .toList();
+        if (enabled.isEmpty()) {
+            return bean;
+        }
+        log.info("Observing statements on DataSource '{}' with {}", beanName,
+                enabled.stream().map(l -> l.getClass().getSimpleName()).toList());
+        return new ObservedDataSource(dataSource, enabled);
+    }
+}
@@ -0,0 +1,28 @@
+package com.roger.auth_service.jdbc;
+
+import com.roger.auth_service.config.ServerTimingProperties;
+import com.roger.auth_service.service.RequestTimings;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL 次数和耗时计入当前请求的 db 阶段（Server-Timing）
+ */
+@Component
+public class RequestTimingStatementListener implements StatementListener {
+
+    private final boolean enabled;
+
+    public RequestTimingStatementListener(ServerTimingProperties properties) {
+        this.enabled = properties.isEnabled();
+    }
+
+    @Override
+    public void afterExecute(String sql, long elapsedNanos, Throwable failure) {
+        RequestTimings.record(RequestTimings.Phase.DB, elapsedNanos);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,137 @@
+package com.roger.auth_service.jdbc;
+
+import com.roger.auth_service.config.SqlLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 取代 spring.jpa.show-sql：每条 SQL 计时（auth.sql.duration），
+ * 慢 SQL 一定记、其余按比例抽样记，格式是一行 key=value。
+ * <p>
+ * 请求线程上只做判断和一次入队，格式化和写日志都在单独的 sql-log 线程里；
+ * 队列满了直接丢弃并计数，不会因为日志把请求卡住。
+ */
+@Slf4j
+@Component
+public class SqlLogStatementListener implements StatementListener {
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int maxSqlLength;
+
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+
+    private final Timer successTimer;
+    private final Timer errorTimer;
+    private final Counter dropped;
+
+    public SqlLogStatementListener(SqlLogProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.sampleRate = properties.getSampleRate();
+        this.maxSqlLength = properties.getMaxSqlLength();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+
+        this.successTimer = sqlTimer("success", meterRegistry);
+        this.errorTimer = sqlTimer("error", meterRegistry);
+        this.dropped = Counter.builder("auth.sql.log.dropped")
+                .description("SQL log entries dropped because the log queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.sql.log.queue.depth", queue, BlockingQueue::size)
+                .description("SQL log entries waiting to be written")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::drainLoop, "sql-log");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterExecute(String sql, long elapsedNanos, Throwable failure) {
+        (failure == null ? successTimer : errorTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && failure == null && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        Entry entry = new Entry(sql, elapsedNanos, slow, failure, Thread.currentThread().getName());
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.interrupt();
+    }
+
+    private void drainLoop() {
+        try {
+            while (true) {
+                write(queue.take());
+            }
+        } catch (InterruptedException e) {
+            // 关闭时把剩下的写完
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                write(entry);
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        try {
+            String sql = normalize(entry.sql());
+            String elapsedMs = String.format(Locale.ROOT, "%.3f", entry.elapsedNanos() / 1e6);
+            if (entry.failure() != null) {
+                log.warn("sql outcome=error elapsed_ms={} thread={} error=\"{}\" sql=\"{}\"",
+                        elapsedMs, entry.thread(), entry.failure().getMessage(), sql);
+            } else if (entry.slow()) {
+                log.warn("sql outcome=slow elapsed_ms={} thread={} sql=\"{}\"", elapsedMs, entry.thread(), sql);
+            } else {
+                log.info("sql outcome=sampled elapsed_ms={} thread={} sql=\"{}\"", elapsedMs, entry.thread(), sql);
+            }
+        } catch (RuntimeException e) {
+            // 日志写失败不能把 writer 线程带走
+        }
+    }
+
+    // 压成一行并截断
+    private String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String line = sql.replaceAll("\\s+", " ").trim();
+        return line.length() > maxSqlLength ? line.substring(0, maxSqlLength) + "..." : line;
+    }
+
+    private static Timer sqlTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.sql.duration")
+                .description("JDBC statement execution time")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Entry(String sql, long elapsedNanos, boolean slow, Throwable failure, String thread) {
+    }
+}
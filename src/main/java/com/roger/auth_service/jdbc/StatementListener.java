@@ -0,0 +1,23 @@
+package com.roger.auth_service.jdbc;
+
+/**
+ * 每条 SQL 执行完成后的回调（在执行 SQL 的线程上同步调用，实现里不要做 IO）。
+ * <p>
+ * 注册成 bean 即可；没有任何 enabled 的 listener 时 DataSource 不会被包装，没有额外开销。
+ */
+public interface StatementListener {
+
+    /**
+     * @param sql          执行的 SQL（PreparedStatement 是 prepare 时的 SQL，带 ? 占位符）
+     * @param elapsedNanos execute* 调用耗时
+     * @param failure      抛出的异常，成功时为 null
+     */
+    void afterExecute(String sql, long elapsedNanos, Throwable failure);
+
+    /**
+     * false 时不参与包装（对应功能的开关关着）
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
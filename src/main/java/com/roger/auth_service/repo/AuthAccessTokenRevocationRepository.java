@@ -0,0 +1,22 @@
+package com.roger.auth_service.repo;
+
+import com.roger.auth_service.entity.AuthAccessTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AuthAccessTokenRevocationRepository extends JpaRepository<AuthAccessTokenRevocation, Long> {
+
+    /**
+     * 增量同步：since 之后新增、且还没过期的撤销记录
+     */
+    List<AuthAccessTokenRevocation> findByCreatedAtGreaterThanEqualAndExpiresAtAfter(Instant since, Instant now);
+
+    @Modifying
+    @Query("delete from AuthAccessTokenRevocation r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -2,6 +2,10 @@ package com.roger.auth_service.repo;
 
 import com.roger.auth_service.entity.AuthProject;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface AuthProjectRepository extends JpaRepository<AuthProject, String> {
+
+    @Query("select new com.roger.auth_service.repo.ProjectVersion(count(p), max(p.updatedAt)) from AuthProject p")
+    ProjectVersion currentVersion();
 }
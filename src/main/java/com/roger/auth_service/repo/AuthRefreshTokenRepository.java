@@ -2,11 +2,39 @@ package com.roger.auth_service.repo;
 
 import com.roger.auth_service.entity.AuthRefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.time.Instant;
 import java.util.UUID;
 
 public interface AuthRefreshTokenRepository extends JpaRepository<AuthRefreshToken, UUID> {
 
-    Optional<AuthRefreshToken> findByTokenHash(String tokenHash);
+    // 批量撤销：一条 set-based UPDATE，返回影响行数
+    // 同时清掉 rotated_at，让刚被轮换的旧 token 也不能再走 reuse grace。
+    // 只碰 grace 窗口内（rotated_at > graceStart）的轮换记录，更早的轮换历史不用重写；
+    // rotated_at > ? 蕴含 rotated_at is not null，planner 仍能用 idx_refresh_active_project_user
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AuthRefreshToken t set t.revoked = true, t.revokedAt = :now, t.rotatedAt = null " +
+            "where t.userId = :userId and (t.revoked = false or t.rotatedAt > :graceStart)")
+    int revokeAllByUserId(@Param("userId") UUID userId,
+                          @Param("now") Instant now,
+                          @Param("graceStart") Instant graceStart);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AuthRefreshToken t set t.revoked = true, t.revokedAt = :now, t.rotatedAt = null " +
+            "where t.userId = :userId and t.projectId = :projectId and (t.revoked = false or t.rotatedAt > :graceStart)")
+    int revokeAllByUserIdAndProjectId(@Param("userId") UUID userId,
+                                      @Param("projectId") String projectId,
+                                      @Param("now") Instant now,
+                                      @Param("graceStart") Instant graceStart);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AuthRefreshToken t set t.revoked = true, t.revokedAt = :now, t.rotatedAt = null " +
+            "where t.projectId = :projectId and (t.revoked = false or t.rotatedAt > :graceStart)")
+    int revokeAllByProjectId(@Param("projectId") String projectId,
+                             @Param("now") Instant now,
+                             @Param("graceStart") Instant graceStart);
 }
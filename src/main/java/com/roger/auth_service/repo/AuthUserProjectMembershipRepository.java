@@ -3,8 +3,13 @@ package com.roger.auth_service.repo;
 import com.roger.auth_service.entity.AuthUser;
 import com.roger.auth_service.entity.AuthUserProjectMembership;
 import com.roger.auth_service.entity.AuthProject;
+import com.roger.auth_service.entity.ProjectRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,5 +18,23 @@ public interface AuthUserProjectMembershipRepository extends JpaRepository<AuthU
 
     Optional<AuthUserProjectMembership> findByUserAndProject(AuthUser user, AuthProject project);
 
+    /**
+     * 按 (user_id, project_id)（uk_user_project）查角色 + 用户状态，不加载实体。
+     * 不是成员时返回 empty。
+     */
+    @Query("select new com.roger.auth_service.repo.MembershipGrant(" +
+            "m.role, u.email, u.active, u.deleted, u.locked) " +
+            "from AuthUserProjectMembership m join m.user u " +
+            "where m.user.id = :userId and m.project.id = :projectId")
+    Optional<MembershipGrant> findGrant(@Param("userId") UUID userId, @Param("projectId") String projectId);
+
     List<AuthUserProjectMembership> findByUser(AuthUser user);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AuthUserProjectMembership m set m.role = :role, m.updatedAt = :now " +
+            "where m.user.id = :userId and m.project.id = :projectId")
+    int updateRole(@Param("userId") UUID userId,
+                   @Param("projectId") String projectId,
+                   @Param("role") ProjectRole role,
+                   @Param("now") Instant now);
 }
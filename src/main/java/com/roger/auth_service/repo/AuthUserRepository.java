@@ -2,6 +2,9 @@ package com.roger.auth_service.repo;
 
 import com.roger.auth_service.entity.AuthUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -10,4 +13,14 @@ public interface AuthUserRepository extends JpaRepository<AuthUser, UUID> {
     Optional<AuthUser> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /**
+     * CAS：只有 hash 还是读到的那个旧值时才替换（期间改过密码 / 被别的节点升级过就放弃）
+     */
+    @Modifying
+    @Query("update AuthUser u set u.passwordHash = :newHash " +
+            "where u.id = :userId and u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("userId") UUID userId,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
 }
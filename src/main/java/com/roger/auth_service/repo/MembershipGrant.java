@@ -0,0 +1,21 @@
+package com.roger.auth_service.repo;
+
+import com.roger.auth_service.entity.ProjectRole;
+
+/**
+ * 签发 token 需要的成员信息，一条查询拿到，不加载实体：
+ * 用户在项目里的角色、用户的 email 和状态。项目本身由 ProjectRegistry 解析。
+ */
+public record MembershipGrant(ProjectRole role,
+                              String email,
+                              boolean userActive,
+                              boolean userDeleted,
+                              boolean userLocked) {
+
+    /**
+     * 和 AuthUser.isEnabled() / isAccountNonLocked() 一致
+     */
+    public boolean isUserEnabled() {
+        return userActive && !userDeleted && !userLocked;
+    }
+}
@@ -0,0 +1,9 @@
+package com.roger.auth_service.repo;
+
+import java.time.Instant;
+
+/**
+ * auth_project 的"版本"：行数 + 最新 updated_at，任何增删改都会让它变化
+ */
+public record ProjectVersion(long count, Instant lastUpdatedAt) {
+}
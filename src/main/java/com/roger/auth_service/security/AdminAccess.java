@@ -0,0 +1,111 @@
+package com.roger.auth_service.security;
+
+import com.roger.auth_service.config.AdminProperties;
+import com.roger.auth_service.entity.ProjectRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 管理接口的租户边界：项目 OWNER / ADMIN 只能操作自己 token 里的 project_id，
+ * 跨项目操作需要 ROLE_PLATFORM_ADMIN（见 {@link AdminProperties#getPlatformProjectId()}）。
+ * <p>
+ * 在 {@code @PreAuthorize} 里以 {@code @adminAccess} 引用。
+ */
+@Component("adminAccess")
+@RequiredArgsConstructor
+public class AdminAccess {
+
+    public static final String PLATFORM_ADMIN = "PLATFORM_ADMIN";
+    public static final String PLATFORM_ADMIN_AUTHORITY = "ROLE_" + PLATFORM_ADMIN;
+
+    private final AdminProperties adminProperties;
+
+    /**
+     * 平台管理项目里的 OWNER / ADMIN
+     */
+    public boolean isPlatformAdmin(VerifiedToken token) {
+        String platformProjectId = adminProperties.getPlatformProjectId();
+        return platformProjectId != null
+                && platformProjectId.equals(token.projectId())
+                && (token.roles().contains("OWNER") || token.roles().contains("ADMIN"));
+    }
+
+    public boolean isPlatformAdmin(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (PLATFORM_ADMIN_AUTHORITY.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 路径里的 projectId 必须是调用方自己的项目（平台管理员除外）
+     */
+    public boolean canManageProject(Authentication authentication, String projectId) {
+        if (isPlatformAdmin(authentication)) {
+            return true;
+        }
+        return projectId != null && projectId.equals(callerProjectId(authentication));
+    }
+
+    /**
+     * 按用户操作时实际生效的项目范围：项目管理员固定为自己的项目（传了别的项目直接拒绝）；
+     * 平台管理员按参数来，null = 所有项目
+     */
+    public String scopeProject(Authentication authentication, String requestedProjectId) {
+        if (isPlatformAdmin(authentication)) {
+            return requestedProjectId;
+        }
+        String callerProjectId = callerProjectId(authentication);
+        if (callerProjectId == null) {
+            throw new AccessDeniedException("Caller token has no project");
+        }
+        if (requestedProjectId != null && !requestedProjectId.equals(callerProjectId)) {
+            throw new AccessDeniedException("Project " + requestedProjectId + " is outside the caller's project");
+        }
+        return callerProjectId;
+    }
+
+    public UUID callerId(Authentication authentication) {
+        VerifiedToken token = callerToken(authentication);
+        if (token == null) {
+            throw new AccessDeniedException("Caller is not authenticated with an access token");
+        }
+        return token.userId();
+    }
+
+    /**
+     * 调用方在自己项目里的最高角色；平台管理员按 OWNER 算
+     */
+    public ProjectRole callerRole(Authentication authentication) {
+        if (isPlatformAdmin(authentication)) {
+            return ProjectRole.OWNER;
+        }
+        VerifiedToken token = callerToken(authentication);
+        if (token == null) {
+            return ProjectRole.USER;
+        }
+        if (token.roles().contains(ProjectRole.OWNER.name())) {
+            return ProjectRole.OWNER;
+        }
+        return token.roles().contains(ProjectRole.ADMIN.name()) ? ProjectRole.ADMIN : ProjectRole.USER;
+    }
+
+    public String callerProjectId(Authentication authentication) {
+        VerifiedToken token = callerToken(authentication);
+        return token == null ? null : token.projectId();
+    }
+
+    public VerifiedToken callerToken(Authentication authentication) {
+        if (authentication != null && authentication.getDetails() instanceof TokenAuthenticationDetails details) {
+            return details.getToken();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.roger.auth_service.security;
+
+import com.roger.auth_service.config.ClientIpProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 客户端 IP（限流的 IP 维度、refresh token 记录的 ip_address）。
+ * <p>
+ * 默认就是 TCP 对端地址。只有对端是配置的可信代理时才读 X-Forwarded-For：从右往左跳过可信代理，
+ * 第一个不可信的地址就是客户端（更左边的部分是客户端自己写的，不能信）。
+ * 转发头里只接受 IP 字面量，不会触发 DNS 解析。
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]{2,45}");
+
+    private final List<IpAddressMatcher> trustedProxies;
+    private final String forwardedHeader;
+
+    public ClientIpResolver(ClientIpProperties properties) {
+        List<IpAddressMatcher> matchers = new ArrayList<>();
+        for (String proxy : properties.getTrustedProxies()) {
+            matchers.add(new IpAddressMatcher(proxy.trim()));
+        }
+        this.trustedProxies = List.copyOf(matchers);
+        this.forwardedHeader = properties.getForwardedHeader();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (trustedProxies.isEmpty() || !isTrusted(remote)) {
+            return remote;
+        }
+
+        List<String> hops = new ArrayList<>();
+        for (String header : Collections.list(request.getHeaders(forwardedHeader))) {
+            for (String hop : header.split(",")) {
+                hops.add(hop.trim());
+            }
+        }
+
+        String client = remote;
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            String hop = hops.get(i);
+            if (!isIpLiteral(hop)) {
+                // 可信代理不会写出这种值：停在最后一个可信的地址
+                return client;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        if (!isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIpLiteral(String value) {
+        return value != null
+                && (IPV4.matcher(value).matches() || (value.indexOf(':') >= 0 && IPV6.matcher(value).matches()));
+    }
+}
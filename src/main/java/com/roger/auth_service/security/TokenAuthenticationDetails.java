@@ -0,0 +1,23 @@
+package com.roger.auth_service.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * access token 认证的请求附带的已验证 token。
+ * principal 可能是 {@link JwtPrincipal}，也可能是从库里加载的 AuthUser（stateless-principal=false），
+ * 调用方所属的项目和项目角色只能从 token 里拿。
+ */
+public class TokenAuthenticationDetails extends WebAuthenticationDetails {
+
+    private final transient VerifiedToken token;
+
+    public TokenAuthenticationDetails(HttpServletRequest request, VerifiedToken token) {
+        super(request);
+        this.token = token;
+    }
+
+    public VerifiedToken getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,26 @@
+package com.roger.auth_service.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一次签名校验 + 解析后的 access token claims（不可变）。
+ * 调用方只解析一次，之后都用这个对象，不再重复 parse。
+ */
+public record VerifiedToken(UUID userId,
+                            UUID jti,
+                            String email,
+                            String projectId,
+                            List<String> roles,
+                            Instant issuedAt,
+                            Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    public JwtPrincipal toPrincipal() {
+        return new JwtPrincipal(userId, email, projectId, roles);
+    }
+}
@@ -0,0 +1,354 @@
+package com.roger.auth_service.service;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.RSAKey;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 专门给我们固定 claim 结构（sub, jti, iat, exp, email, project_id, roles）用的 JWT 编码器（HS256 / RS256 / ES256）。
+ * <p>
+ * 不走 Jwts.builder() 的 Map + Date + Jackson 流程：JSON payload 直接写进池化复用的
+ * byte[]，base64url 直接编码到输出 buffer，签名用池里借出的 Mac / Signature 实例
+ * （ES256 直接用 JDK 的 P1363 格式输出 r||s，不用再从 DER 转换），
+ * 整个过程只在最后生成一次 String。输出格式和 jjwt 一致，jjwt parser 可以直接校验。
+ */
+public final class AccessTokenEncoder {
+
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+
+    private static final byte[] SUB = ascii("{\"sub\":\"");
+    private static final byte[] JTI = ascii("\",\"jti\":\"");
+    private static final byte[] IAT = ascii("\",\"iat\":");
+    private static final byte[] EXP = ascii(",\"exp\":");
+    private static final byte[] EMAIL = ascii(",\"email\":");
+    private static final byte[] PROJECT_ID = ascii(",\"project_id\":");
+    private static final byte[] ROLES = ascii(",\"roles\":[");
+
+    private static final int HMAC_LENGTH = 32; // HMAC-SHA256
+
+    private final byte[] header;
+    private final int signatureLength;
+
+    // 不用 ThreadLocal：虚拟线程模式下每个请求都是新线程
+    private final InstancePool<State> states;
+
+    /**
+     * HS256，不带 kid（和 jjwt 生成的 header 一样：{"alg":"HS256"}）
+     */
+    public AccessTokenEncoder(SecretKey key) {
+        this(null, SignatureAlgorithm.HS256, key);
+    }
+
+    /**
+     * @param kid       写进 header 的 kid，null 表示不写；调用方保证只含 [A-Za-z0-9._-]
+     * @param algorithm HS256 / RS256 / ES256
+     * @param key       HS256 用 SecretKey，RS256 / ES256 用 PrivateKey
+     */
+    public AccessTokenEncoder(String kid, SignatureAlgorithm algorithm, Key key) {
+        this.header = encodeHeader(kid == null
+                ? "{\"alg\":\"" + algorithm.getValue() + "\"}"
+                : "{\"kid\":\"" + kid + "\",\"alg\":\"" + algorithm.getValue() + "\"}");
+        this.signatureLength = switch (algorithm) {
+            case HS256 -> HMAC_LENGTH;
+            case RS256 -> (((RSAKey) key).getModulus().bitLength() + 7) / 8;
+            case ES256 -> 64;
+            default -> throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+        };
+        this.states = new InstancePool<>(() -> new State(algorithm, key));
+    }
+
+    public String encode(UUID userId,
+                         String email,
+                         String projectId,
+                         List<String> roles,
+                         long issuedAtSeconds,
+                         long expiresAtSeconds) {
+        return encode(userId, null, email, projectId, roles, issuedAtSeconds, expiresAtSeconds);
+    }
+
+    /**
+     * @param jti token id（撤销用），null 时不写
+     */
+    public String encode(UUID userId,
+                         UUID jti,
+                         String email,
+                         String projectId,
+                         List<String> roles,
+                         long issuedAtSeconds,
+                         long expiresAtSeconds) {
+        State s = states.borrow();
+        String token = encode(s, header, signatureLength,
+                userId, jti, email, projectId, roles, issuedAtSeconds, expiresAtSeconds);
+        // 出异常的 State（Mac / Signature 可能写了一半）不还回池里
+        states.release(s);
+        return token;
+    }
+
+    private static String encode(State s,
+                                 byte[] header,
+                                 int signatureLength,
+                                 UUID userId,
+                                 UUID jti,
+                                 String email,
+                                 String projectId,
+                                 List<String> roles,
+                                 long issuedAtSeconds,
+                                 long expiresAtSeconds) {
+
+        // 1. payload JSON
+        s.json = 0;
+        s.writeJson(SUB);
+        s.writeUuid(userId);
+        if (jti != null) {
+            s.writeJson(JTI);
+            s.writeUuid(jti);
+        }
+        s.writeJson(IAT);
+        s.writeLong(issuedAtSeconds);
+        s.writeJson(EXP);
+        s.writeLong(expiresAtSeconds);
+        // jjwt 会省略值为 null 的 claim，这里保持一致
+        if (email != null) {
+            s.writeJson(EMAIL);
+            s.writeString(email);
+        }
+        if (projectId != null) {
+            s.writeJson(PROJECT_ID);
+            s.writeString(projectId);
+        }
+        if (roles != null) {
+            s.writeJson(ROLES);
+            for (int i = 0; i < roles.size(); i++) {
+                if (i > 0) {
+                    s.writeJsonByte(',');
+                }
+                s.writeString(roles.get(i));
+            }
+            s.writeJsonByte(']');
+        }
+        s.writeJsonByte('}');
+
+        // 2. header.payload
+        int payloadB64 = base64UrlLength(s.json);
+        s.ensureOut(header.length + 1 + payloadB64 + 1 + base64UrlLength(signatureLength));
+        byte[] out = s.out;
+        System.arraycopy(header, 0, out, 0, header.length);
+        int pos = header.length;
+        out[pos++] = '.';
+        pos = base64Url(s.jsonBuf, 0, s.json, out, pos);
+
+        // 3. signature
+        byte[] signature;
+        try {
+            if (s.mac != null) {
+                s.mac.update(out, 0, pos);
+                s.mac.doFinal(s.signature, 0);
+                signature = s.signature;
+            } else {
+                s.signer.update(out, 0, pos);
+                signature = s.signer.sign();
+            }
+        } catch (ShortBufferException | SignatureException e) {
+            throw new IllegalStateException(e);
+        }
+        out[pos++] = '.';
+        pos = base64Url(signature, 0, signatureLength, out, pos);
+
+        return new String(out, 0, pos, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int base64UrlLength(int len) {
+        return (len / 3) * 4 + (len % 3 == 0 ? 0 : len % 3 + 1);
+    }
+
+    private static int base64Url(byte[] src, int off, int len, byte[] dst, int dp) {
+        int end = off + len - len % 3;
+        int sp = off;
+        while (sp < end) {
+            int bits = (src[sp++] & 0xff) << 16 | (src[sp++] & 0xff) << 8 | (src[sp++] & 0xff);
+            dst[dp++] = BASE64_URL[(bits >>> 18) & 0x3f];
+            dst[dp++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            dst[dp++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            dst[dp++] = BASE64_URL[bits & 0x3f];
+        }
+        int rest = off + len - sp;
+        if (rest == 1) {
+            int b0 = src[sp] & 0xff;
+            dst[dp++] = BASE64_URL[b0 >> 2];
+            dst[dp++] = BASE64_URL[(b0 << 4) & 0x3f];
+        } else if (rest == 2) {
+            int b0 = src[sp] & 0xff;
+            int b1 = src[sp + 1] & 0xff;
+            dst[dp++] = BASE64_URL[b0 >> 2];
+            dst[dp++] = BASE64_URL[(b0 << 4) & 0x3f | (b1 >> 4)];
+            dst[dp++] = BASE64_URL[(b1 << 2) & 0x3f];
+        }
+        return dp;
+    }
+
+    private static byte[] encodeHeader(String json) {
+        byte[] raw = ascii(json);
+        byte[] out = new byte[base64UrlLength(raw.length)];
+        base64Url(raw, 0, raw.length, out, 0);
+        return out;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 池化复用：payload buffer、输出 buffer、签名 buffer、Mac（HS256）或 Signature（RS256 / ES256）
+     */
+    private static final class State {
+        private final Mac mac;
+        private final Signature signer;
+        private final byte[] signature = new byte[HMAC_LENGTH];
+        private byte[] jsonBuf = new byte[512];
+        private byte[] out = new byte[1024];
+        private int json;
+
+        private State(SignatureAlgorithm algorithm, Key key) {
+            try {
+                if (algorithm == SignatureAlgorithm.HS256) {
+                    this.mac = Mac.getInstance("HmacSHA256");
+                    this.mac.init(key);
+                    this.signer = null;
+                } else {
+                    this.mac = null;
+                    this.signer = Signature.getInstance(algorithm == SignatureAlgorithm.RS256
+                            ? "SHA256withRSA"
+                            : "SHA256withECDSAinP1363Format");
+                    this.signer.initSign((PrivateKey) key);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + algorithm, e);
+            }
+        }
+
+        private void ensureJson(int extra) {
+            if (json + extra > jsonBuf.length) {
+                jsonBuf = Arrays.copyOf(jsonBuf, Math.max(jsonBuf.length * 2, json + extra));
+            }
+        }
+
+        private void ensureOut(int size) {
+            if (size > out.length) {
+                out = new byte[Math.max(out.length * 2, size)];
+            }
+        }
+
+        private void writeJson(byte[] bytes) {
+            ensureJson(bytes.length);
+            System.arraycopy(bytes, 0, jsonBuf, json, bytes.length);
+            json += bytes.length;
+        }
+
+        private void writeJsonByte(char c) {
+            ensureJson(1);
+            jsonBuf[json++] = (byte) c;
+        }
+
+        private void writeLong(long value) {
+            ensureJson(20);
+            if (value == 0) {
+                jsonBuf[json++] = '0';
+                return;
+            }
+            if (value < 0) {
+                jsonBuf[json++] = '-';
+                value = -value;
+            }
+            int start = json;
+            while (value > 0) {
+                jsonBuf[json++] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            // 反转数字
+            for (int i = start, j = json - 1; i < j; i++, j--) {
+                byte t = jsonBuf[i];
+                jsonBuf[i] = jsonBuf[j];
+                jsonBuf[j] = t;
+            }
+        }
+
+        private void writeUuid(UUID uuid) {
+            ensureJson(36);
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            writeHex(msb >>> 32, 8);
+            jsonBuf[json++] = '-';
+            writeHex(msb >>> 16, 4);
+            jsonBuf[json++] = '-';
+            writeHex(msb, 4);
+            jsonBuf[json++] = '-';
+            writeHex(lsb >>> 48, 4);
+            jsonBuf[json++] = '-';
+            writeHex(lsb, 12);
+        }
+
+        private void writeHex(long value, int digits) {
+            for (int i = digits - 1; i >= 0; i--) {
+                jsonBuf[json + i] = HEX[(int) (value & 0xf)];
+                value >>>= 4;
+            }
+            json += digits;
+        }
+
+        /**
+         * JSON 字符串：UTF-8 编码 + 转义 " \ 和控制字符
+         */
+        private void writeString(String value) {
+            int len = value.length();
+            ensureJson(len * 6 + 2);
+            jsonBuf[json++] = '"';
+            for (int i = 0; i < len; i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    jsonBuf[json++] = '\\';
+                    jsonBuf[json++] = (byte) c;
+                } else if (c < 0x20) {
+                    jsonBuf[json++] = '\\';
+                    jsonBuf[json++] = 'u';
+                    jsonBuf[json++] = '0';
+                    jsonBuf[json++] = '0';
+                    jsonBuf[json++] = HEX[c >> 4];
+                    jsonBuf[json++] = HEX[c & 0xf];
+                } else if (c < 0x80) {
+                    jsonBuf[json++] = (byte) c;
+                } else if (c < 0x800) {
+                    jsonBuf[json++] = (byte) (0xc0 | (c >> 6));
+                    jsonBuf[json++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    jsonBuf[json++] = (byte) (0xf0 | (cp >> 18));
+                    jsonBuf[json++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    jsonBuf[json++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    jsonBuf[json++] = (byte) (0x80 | (cp & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    jsonBuf[json++] = '?'; // 落单的 surrogate，和 String.getBytes(UTF_8) 一样替换成 ?
+                } else {
+                    jsonBuf[json++] = (byte) (0xe0 | (c >> 12));
+                    jsonBuf[json++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    jsonBuf[json++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            jsonBuf[json++] = '"';
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * 内存里的 access token 撤销索引，每个带 token 的请求都会查一次。
+ * <p>
+ * 单个 jti：Bloom filter 挡掉绝大多数（没被撤销的）token，命中后再查精确 Map；
+ * 用户级 "revoked-before"：userId -> 时间戳，iat 不晚于它的 token 都算撤销。
+ * 每条撤销都带项目范围：只对 project_id 相同的 token 生效，{@link #ALL_PROJECTS} 对所有项目生效（平台管理员），
+ * 所以一个项目的管理员撤销不到别的项目的 token。Map 的值是 项目 -> 撤销 的不可变小 Map，写时整体替换。
+ * 查询路径无锁、不分配对象（UUID 的两个 long 直接算 hash，Map 查询用 token 里已有的 UUID 和 project_id）。
+ * <p>
+ * 条目在对应 token 过期后由 {@link #sweep(long)} 删除；Bloom filter 不能删除，sweep 时整体重建后替换。
+ * 写（撤销、同步、sweep）很少，用一把锁串行。
+ */
+@Component
+public class AccessTokenRevocationIndex {
+
+    private static final int HASHES = 5;
+
+    /**
+     * 对所有项目生效的撤销
+     */
+    public static final String ALL_PROJECTS = "*";
+
+    private final boolean enabled;
+    private final int bloomBits;
+
+    private final ConcurrentHashMap<UUID, Map<String, Long>> revokedJtis = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Map<String, UserRevocation>> revokedUsers = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Bloom bloom;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    public AccessTokenRevocationIndex(AccessTokenRevocationProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.bloomBits = Integer.highestOneBit(Math.max(64, properties.getBloomBits() - 1)) << 1;
+        this.bloom = new Bloom(bloomBits);
+
+        Gauge.builder("auth.access_token.revocations", revokedJtis, Map::size)
+                .tag("kind", "jti")
+                .description("Revoked access token ids held in memory")
+                .register(meterRegistry);
+        Gauge.builder("auth.access_token.revocations", revokedUsers, Map::size)
+                .tag("kind", "user")
+                .description("Per-user revoked-before entries held in memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.access_token.revocation.rejected", rejected, LongAdder::sum)
+                .description("Requests rejected because their access token was revoked")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.access_token.revocation.bloom_false_positives", bloomFalsePositives, LongAdder::sum)
+                .description("Bloom filter hits that were not in the exact set")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (!enabled) {
+            return false;
+        }
+        UUID jti = token.jti();
+        String projectId = token.projectId();
+        if (jti != null && bloom.mightContain(jti.getMostSignificantBits(), jti.getLeastSignificantBits())) {
+            Map<String, Long> scopes = revokedJtis.get(jti);
+            if (scopes != null && (scopes.containsKey(ALL_PROJECTS)
+                    || (projectId != null && scopes.containsKey(projectId)))) {
+                rejected.increment();
+                return true;
+            }
+            bloomFalsePositives.increment();
+        }
+        if (!revokedUsers.isEmpty() && token.issuedAt() != null) {
+            Map<String, UserRevocation> scopes = revokedUsers.get(token.userId());
+            if (scopes != null) {
+                long issuedAt = token.issuedAt().getEpochSecond();
+                if (revokedBefore(scopes.get(ALL_PROJECTS), issuedAt)
+                        || (projectId != null && revokedBefore(scopes.get(projectId), issuedAt))) {
+                    rejected.increment();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // iat 只有秒精度：撤销那一秒内签发的 token 也算撤销（宁可多踢）
+    private static boolean revokedBefore(UserRevocation revocation, long issuedAt) {
+        return revocation != null && issuedAt <= revocation.revokedBefore();
+    }
+
+    /**
+     * @param projectId 只撤销这个项目的 token，{@link #ALL_PROJECTS} = 所有项目
+     * @param expiresAt token 的 exp（epoch 秒），之后可以忘掉
+     */
+    public void revokeJti(UUID jti, String projectId, long expiresAt) {
+        writeLock.lock();
+        try {
+            revokedJtis.put(jti, with(revokedJtis.get(jti), projectId, expiresAt, Math::max));
+            bloom.put(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @param projectId     只撤销这个项目的 token，{@link #ALL_PROJECTS} = 所有项目
+     * @param revokedBefore iat 不晚于它（epoch 秒）的 token 都撤销
+     * @param expiresAt     revokedBefore 之前签发的 token 最晚的过期时间
+     */
+    public void revokeUser(UUID userId, String projectId, long revokedBefore, long expiresAt) {
+        writeLock.lock();
+        try {
+            revokedUsers.put(userId, with(revokedUsers.get(userId), projectId,
+                    new UserRevocation(revokedBefore, expiresAt), (a, b) ->
+                            new UserRevocation(Math.max(a.revokedBefore(), b.revokedBefore()),
+                                    Math.max(a.expiresAt(), b.expiresAt()))));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 删掉已过期的条目并重建 Bloom filter
+     */
+    public void sweep(long nowEpochSecond) {
+        writeLock.lock();
+        try {
+            revokedJtis.replaceAll((jti, scopes) -> without(scopes, exp -> exp < nowEpochSecond));
+            revokedJtis.values().removeIf(Map::isEmpty);
+            revokedUsers.replaceAll((userId, scopes) -> without(scopes, r -> r.expiresAt() < nowEpochSecond));
+            revokedUsers.values().removeIf(Map::isEmpty);
+
+            Bloom rebuilt = new Bloom(bloomBits);
+            for (UUID jti : revokedJtis.keySet()) {
+                rebuilt.put(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+            }
+            this.bloom = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 写路径（持有 writeLock）：复制一份加上 / 合并 projectId 这一项，读路径看到的 Map 永远不变
+    private static <V> Map<String, V> with(Map<String, V> scopes, String projectId, V value,
+                                           BinaryOperator<V> merge) {
+        Map<String, V> copy = scopes == null ? new HashMap<>() : new HashMap<>(scopes);
+        copy.merge(projectId, value, merge);
+        return Map.copyOf(copy);
+    }
+
+    private static <V> Map<String, V> without(Map<String, V> scopes, Predicate<V> expired) {
+        for (V value : scopes.values()) {
+            if (expired.test(value)) {
+                Map<String, V> copy = new HashMap<>(scopes);
+                copy.values().removeIf(expired);
+                return Map.copyOf(copy);
+            }
+        }
+        return scopes;
+    }
+
+    private record UserRevocation(long revokedBefore, long expiresAt) {
+    }
+
+    /**
+     * 固定大小的 Bloom filter；位数是 2 的幂，下标用 mask 取。
+     * jti 本身是随机 UUID，两个 long 混一下就能当 double hashing 的两个 hash。
+     */
+    private static final class Bloom {
+        private final AtomicLongArray words;
+        private final int mask;
+
+        private Bloom(int bits) {
+            this.words = new AtomicLongArray(bits >>> 6);
+            this.mask = bits - 1;
+        }
+
+        private void put(long msb, long lsb) {
+            long h1 = mix(msb ^ lsb);
+            long h2 = mix(lsb) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (int) ((h1 + i * h2) & mask);
+                int word = bit >>> 6;
+                long flag = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & flag) == 0 && !words.compareAndSet(word, current, current | flag));
+            }
+        }
+
+        private boolean mightContain(long msb, long lsb) {
+            long h1 = mix(msb ^ lsb);
+            long h2 = mix(lsb) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (int) ((h1 + i * h2) & mask);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // SplitMix64 finalizer
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
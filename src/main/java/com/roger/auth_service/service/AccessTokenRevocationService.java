@@ -0,0 +1,149 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.entity.AuthAccessTokenRevocation;
+import com.roger.auth_service.repo.AuthAccessTokenRevocationRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * access token 撤销：写 Postgres（所有节点的来源），提交后立即更新本节点的
+ * {@link AccessTokenRevocationIndex}；其他节点按 sync-interval 增量拉取。
+ * 在外层事务里调用（例如停用账号）时，事务回滚的话本节点的索引也不会变。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccessTokenRevocationService {
+
+    private final AuthAccessTokenRevocationRepository repository;
+    private final AccessTokenRevocationIndex index;
+    private final AccessTokenRevocationProperties properties;
+    private final JwtProperties jwtProperties;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    /**
+     * 撤销单个 access token。jti 对应 token 的 exp 不知道，按最长有效期保留
+     *
+     * @param projectId 只撤销这个项目签发的 token；null = 所有项目
+     */
+    public void revokeToken(UUID jti, String projectId) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(jwtProperties.getAccessTokenValiditySeconds());
+
+        AuthAccessTokenRevocation revocation = new AuthAccessTokenRevocation();
+        revocation.setJti(jti);
+        revocation.setProjectId(projectId);
+        revocation.setExpiresAt(expiresAt);
+        repository.save(revocation);
+
+        afterCommit(() -> index.revokeJti(jti, scope(projectId), expiresAt.getEpochSecond()));
+        log.info("Revoked access token jti={} projectId={}", jti, projectId);
+    }
+
+    /**
+     * 撤销用户在此刻之前签发的全部 access token
+     *
+     * @param projectId 只撤销这个项目签发的 token；null = 所有项目
+     */
+    public void revokeAllForUser(UUID userId, String projectId) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusSeconds(jwtProperties.getAccessTokenValiditySeconds());
+
+        AuthAccessTokenRevocation revocation = new AuthAccessTokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setRevokedBefore(now);
+        revocation.setProjectId(projectId);
+        revocation.setExpiresAt(expiresAt);
+        repository.save(revocation);
+
+        afterCommit(() -> index.revokeUser(userId, scope(projectId), now.getEpochSecond(), expiresAt.getEpochSecond()));
+        log.info("Revoked all access tokens of userId={} projectId={} issued before {}", userId, projectId, now);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        if (properties.isEnabled()) {
+            sync();
+        }
+    }
+
+    /**
+     * 增量同步：拉 lastSync - overlap 之后的新记录（重复的条目幂等合并），顺带清理内存里过期的条目
+     */
+    @Scheduled(fixedDelayString = "${auth.access-token-revocation.sync-interval:PT5S}",
+            initialDelayString = "${auth.access-token-revocation.sync-interval:PT5S}")
+    public void sync() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant since = lastSync == Instant.EPOCH ? Instant.EPOCH : lastSync.minus(properties.getSyncOverlap());
+
+        List<AuthAccessTokenRevocation> changes;
+        try {
+            changes = repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfter(since, now);
+        } catch (RuntimeException e) {
+            log.warn("Access token revocation sync failed, keeping previous state", e);
+            return;
+        }
+
+        for (AuthAccessTokenRevocation r : changes) {
+            long expiresAt = r.getExpiresAt().getEpochSecond();
+            if (r.getJti() != null) {
+                index.revokeJti(r.getJti(), scope(r.getProjectId()), expiresAt);
+            } else if (r.getUserId() != null && r.getRevokedBefore() != null) {
+                index.revokeUser(r.getUserId(), scope(r.getProjectId()),
+                        r.getRevokedBefore().getEpochSecond(), expiresAt);
+            }
+        }
+        index.sweep(now.getEpochSecond());
+        lastSync = now;
+
+        if (!changes.isEmpty()) {
+            log.debug("Synced {} access token revocations since {}", changes.size(), since);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String scope(String projectId) {
+        return projectId == null ? AccessTokenRevocationIndex.ALL_PROJECTS : projectId;
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.access-token-revocation.purge-interval:PT1H}", initialDelayString = "PT1M")
+    public void purgeExpired() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired access token revocations", deleted);
+        }
+    }
+}
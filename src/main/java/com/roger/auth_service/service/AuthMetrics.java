@@ -0,0 +1,120 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AuthMetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 登录 / 注册 / 刷新的耗时和结果统计。
+ * <ul>
+ *   <li>auth.service.duration{operation, project, outcome=success|failure}：AuthService 从进入到结果就绪
+ *   （login / register 包括在 hash 线程池里排队和计算的时间）</li>
+ *   <li>auth.requests{operation, outcome}：success 在这里记，失败由 GlobalExceptionHandler 按异常类型记</li>
+ * </ul>
+ * project tag 只用 allow-list 里的值，其他记为 other，tag 基数有上限。
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+    public static final String REFRESH = "refresh";
+
+    private static final String OTHER = "other";
+
+    // 请求路径 -> operation（GlobalExceptionHandler 里只拿得到路径）
+    private static final Map<String, String> OPERATIONS = Map.of(
+            "/v1/auth/login", LOGIN,
+            "/v1/auth/register", REGISTER,
+            "/v1/auth/refresh", REFRESH,
+            "/v1/auth/introspect", "introspect",
+            "/v1/auth/me", "me");
+
+    private final MeterRegistry meterRegistry;
+    private final AuthMetricsProperties properties;
+
+    public AuthMetrics(MeterRegistry meterRegistry, AuthMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    public <T> T time(String operation, String projectId, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            finish(operation, projectId, start, true);
+            return result;
+        } catch (RuntimeException e) {
+            finish(operation, projectId, start, false);
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<T> timeAsync(String operation, String projectId, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            finish(operation, projectId, start, false);
+            throw e;
+        }
+        return future.whenComplete((result, ex) -> finish(operation, projectId, start, ex == null));
+    }
+
+    /**
+     * 失败结果（由 GlobalExceptionHandler 调用），operation 从当前请求的路径推出来
+     */
+    public void recordFailure(String outcome) {
+        outcome(currentOperation(), outcome);
+    }
+
+    private void finish(String operation, String projectId, long start, boolean success) {
+        Timer.builder("auth.service.duration")
+                .description("Time to complete an auth operation")
+                .tag("operation", operation)
+                .tag("project", projectTag(projectId))
+                .tag("outcome", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (success) {
+            outcome(operation, "success");
+        }
+    }
+
+    private void outcome(String operation, String outcome) {
+        Counter.builder("auth.requests")
+                .description("Auth requests by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String projectTag(String projectId) {
+        if (projectId == null) {
+            return "none";
+        }
+        return properties.getProjectAllowList().contains(projectId) ? projectId : OTHER;
+    }
+
+    private static String currentOperation() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return OTHER;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern == null ? OTHER : OPERATIONS.getOrDefault(pattern.toString(), OTHER);
+    }
+}
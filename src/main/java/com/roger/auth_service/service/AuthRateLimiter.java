@@ -0,0 +1,89 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.RateLimitProperties;
+import com.roger.auth_service.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * login / register 的限流：按客户端 IP、email、projectId 三个维度各一个 bucket，全部有余量才一起扣。
+ * <p>
+ * 在 controller 里、调用 AuthService 之前检查，超限的请求不会碰到密码 hash、事务和数据库。
+ * email 统一小写，换大小写绕不过去。
+ */
+@Slf4j
+@Component
+public class AuthRateLimiter {
+
+    private final RateLimiterBackend backend;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public AuthRateLimiter(RateLimiterBackend backend,
+                           RateLimitProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void checkLogin(String ip, String email, String projectId) {
+        check("login", properties.getLogin(), ip, email, projectId);
+    }
+
+    public void checkRegister(String ip, String email, String projectId) {
+        check("register", properties.getRegister(), ip, email, projectId);
+    }
+
+    private void check(String endpoint,
+                       RateLimitProperties.Endpoint limits,
+                       String ip,
+                       String email,
+                       String projectId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<RateLimiterBackend.Permit> permits = new ArrayList<>(3);
+        addPermit(permits, endpoint, "ip", ip, limits.getPerIp());
+        addPermit(permits, endpoint, "email", email == null ? null : email.toLowerCase(Locale.ROOT), limits.getPerEmail());
+        addPermit(permits, endpoint, "project", projectId, limits.getPerProject());
+        if (permits.isEmpty()) {
+            return;
+        }
+
+        // 三个维度一起检查：任何一个超限就都不扣，被拒的请求不会消耗 email / IP 的额度
+        Optional<RateLimiterBackend.Rejection> rejection = backend.tryAcquire(permits);
+        if (rejection.isPresent()) {
+            String dimension = rejection.get().permit().dimension();
+            Counter.builder("auth.rate_limit.rejected")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("endpoint", endpoint)
+                    .tag("dimension", dimension)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Rate limited {} by {}", endpoint, dimension);
+            throw new RateLimitExceededException(Duration.ofNanos(rejection.get().waitNanos()));
+        }
+    }
+
+    private static void addPermit(List<RateLimiterBackend.Permit> permits,
+                                  String endpoint,
+                                  String dimension,
+                                  String value,
+                                  RateLimitProperties.Limit limit) {
+        if (value == null || value.isBlank() || limit == null || limit.getCapacity() <= 0) {
+            return;
+        }
+        long emissionInterval = limit.getPeriod().toNanos() / limit.getCapacity();
+        permits.add(new RateLimiterBackend.Permit(dimension, endpoint + ':' + dimension + ':' + value,
+                limit.getCapacity(), emissionInterval));
+    }
+}
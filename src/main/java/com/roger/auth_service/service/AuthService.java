@@ -4,20 +4,23 @@ import com.roger.auth_service.dto.AuthTokensDTO;
 import com.roger.auth_service.entity.*;
 import com.roger.auth_service.exception.EmailAlreadyUsedException;
 import com.roger.auth_service.exception.InvalidCredentialsException;
+import com.roger.auth_service.exception.InvalidRefreshTokenException;
 import com.roger.auth_service.exception.ProjectAccessDeniedException;
-import com.roger.auth_service.exception.ProjectNotFoundException;
 import com.roger.auth_service.repo.AuthProjectRepository;
 import com.roger.auth_service.repo.AuthUserProjectMembershipRepository;
 import com.roger.auth_service.repo.AuthUserRepository;
+import com.roger.auth_service.repo.MembershipGrant;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -28,35 +31,72 @@ public class AuthService {
     private final AuthUserRepository userRepository;
     private final AuthProjectRepository projectRepository;
     private final AuthUserProjectMembershipRepository membershipRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final PasswordRehasher passwordRehasher;
+    private final TransactionTemplate transactionTemplate;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final ProjectRegistry projectRegistry;
+    private final MembershipCache membershipCache;
+    private final AuthMetrics authMetrics;
 
     // 注册：用户 + 项目 membership + JWT（project_id + roles）+ refresh token
-    public AuthTokensDTO register(String email,
-                                  String rawPassword,
-                                  String projectId,
-                                  String userAgent,
-                                  String ip) {
+    // 密码 hash 在 PasswordHasher 的线程池里做，之后的写库 + 签发在新事务里完成
+    public CompletableFuture<AuthTokensDTO> register(String email,
+                                                     String rawPassword,
+                                                     String projectId,
+                                                     String userAgent,
+                                                     String ip) {
+        return authMetrics.timeAsync(AuthMetrics.REGISTER, projectId,
+                () -> doRegister(email, rawPassword, projectId, userAgent, ip));
+    }
+
+    private CompletableFuture<AuthTokensDTO> doRegister(String email,
+                                                        String rawPassword,
+                                                        String projectId,
+                                                        String userAgent,
+                                                        String ip) {
 
         log.debug("Register user email={} projectId={}", email, projectId);
 
-        AuthProject project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException(projectId));
+        // 内存注册表：不存在 / 已停用直接拒绝
+        projectRegistry.require(projectId);
 
         if (userRepository.existsByEmail(email)) {
             throw new EmailAlreadyUsedException();
         }
 
+        return passwordHasher.encode(rawPassword)
+                .thenApply(passwordHash -> {
+                    try {
+                        return transactionTemplate.execute(status ->
+                                createUser(email, passwordHash, projectId, userAgent, ip));
+                    } catch (DataIntegrityViolationException e) {
+                        // 上面的 existsByEmail 和这里的 insert 之间隔着一次 hash：
+                        // 同一个邮箱的并发注册都能通过检查，后到的撞上 uk_auth_user_email
+                        if (userRepository.existsByEmail(email)) {
+                            throw new EmailAlreadyUsedException();
+                        }
+                        throw e;
+                    }
+                });
+    }
+
+    private AuthTokensDTO createUser(String email,
+                                     String passwordHash,
+                                     String projectId,
+                                     String userAgent,
+                                     String ip) {
         AuthUser user = new AuthUser();
         user.setEmail(email);
-        user.setPasswordHash(passwordEncoder.encode(rawPassword));
+        user.setPasswordHash(passwordHash);
         AuthUser saved = userRepository.save(user);
 
         // 默认给新用户在该项目一个 USER 角色
         AuthUserProjectMembership membership = new AuthUserProjectMembership();
         membership.setUser(saved);
-        membership.setProject(project);
+        membership.setProject(projectRepository.getReferenceById(projectId));
         membership.setRole(ProjectRole.USER);
         membershipRepository.save(membership);
 
@@ -81,37 +121,65 @@ public class AuthService {
         return new AuthTokensDTO(accessToken, refreshToken);
     }
 
-    public AuthTokensDTO login(String email,
-                               String rawPassword,
-                               String projectId,
-                               String userAgent,
-                               String ip) {
+    public CompletableFuture<AuthTokensDTO> login(String email,
+                                                  String rawPassword,
+                                                  String projectId,
+                                                  String userAgent,
+                                                  String ip) {
+        return authMetrics.timeAsync(AuthMetrics.LOGIN, projectId,
+                () -> doLogin(email, rawPassword, projectId, userAgent, ip));
+    }
+
+    private CompletableFuture<AuthTokensDTO> doLogin(String email,
+                                                     String rawPassword,
+                                                     String projectId,
+                                                     String userAgent,
+                                                     String ip) {
+
+        // 先做便宜的检查：项目不存在 / 停用时不做密码 hash
+        projectRegistry.require(projectId);
 
         AuthUser user = userRepository.findByEmail(email)
                 .orElseThrow(InvalidCredentialsException::new);
 
-        if (!passwordEncoder.matches(rawPassword, user.getPasswordHash())) {
+        if (!user.isEnabled() || !user.isAccountNonLocked()) {
             throw new InvalidCredentialsException();
         }
 
-        AuthProject project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException(projectId));
-
-        AuthUserProjectMembership membership = membershipRepository
-                .findByUserAndProject(user, project)
-                .orElseThrow(() -> new ProjectAccessDeniedException(projectId));
+        UUID userId = user.getId();
+        String userEmail = user.getEmail();
+        String passwordHash = user.getPasswordHash();
+
+        return passwordHasher.matches(rawPassword, passwordHash)
+                .thenApply(matched -> {
+                    if (!matched) {
+                        throw new InvalidCredentialsException();
+                    }
+                    // 旧算法 / 旧 cost：后台升级，不影响本次登录
+                    passwordRehasher.rehashIfNeeded(userId, rawPassword, passwordHash);
+                    return transactionTemplate.execute(status ->
+                            issueLoginTokens(userId, userEmail, projectId, userAgent, ip));
+                });
+    }
 
-        List<String> roles = List.of(membership.getRole().name());
+    private AuthTokensDTO issueLoginTokens(UUID userId,
+                                           String email,
+                                           String projectId,
+                                           String userAgent,
+                                           String ip) {
+        // 角色：一条查询
+        MembershipGrant grant = resolveGrant(userId, projectId);
+        List<String> roles = List.of(grant.role().name());
 
-        user.setLastLoginAt(Instant.now());
-        userRepository.save(user);
+        // write-behind：不在登录事务里 UPDATE auth_user
+        lastLoginRecorder.record(userId, Instant.now());
 
         String accessToken = jwtService.generateAccessToken(
-                user.getId(), user.getEmail(), projectId, roles
+                userId, email, projectId, roles
         );
 
         String refreshToken = refreshTokenService.generateAndStore(
-                user.getId(),
+                userId,
                 projectId,       // 🔥 重要！
                 userAgent,
                 ip
@@ -121,6 +189,49 @@ public class AuthService {
     }
 
 
+    /**
+     * refresh：轮换 refresh token（1 条 SQL）+ 查角色/用户（1 条 SQL），再签新的 access token。
+     * 在同一个事务里，后面校验失败时轮换也会回滚，旧 token 不会被白白烧掉。
+     */
+    public AuthTokensDTO refresh(String refreshToken,
+                                 String projectId,
+                                 boolean allowReuseGrace,
+                                 String userAgent,
+                                 String ip) {
+        return authMetrics.time(AuthMetrics.REFRESH, projectId,
+                () -> doRefresh(refreshToken, projectId, allowReuseGrace, userAgent, ip));
+    }
+
+    private AuthTokensDTO doRefresh(String refreshToken,
+                                    String projectId,
+                                    boolean allowReuseGrace,
+                                    String userAgent,
+                                    String ip) {
+
+        projectRegistry.require(projectId);
+
+        RotatedRefreshToken rotated = refreshTokenService.rotate(
+                refreshToken, projectId, allowReuseGrace, userAgent, ip);
+
+        MembershipGrant grant = resolveGrant(rotated.userId(), rotated.projectId());
+        if (!grant.isUserEnabled()) {
+            throw new InvalidRefreshTokenException("User is disabled");
+        }
+
+        List<String> roles = List.of(grant.role().name());
+
+        String accessToken = jwtService.generateAccessToken(
+                rotated.userId(), grant.email(), rotated.projectId(), roles
+        );
+
+        return new AuthTokensDTO(accessToken, rotated.refreshToken());
+    }
+
+    private MembershipGrant resolveGrant(UUID userId, String projectId) {
+        return membershipCache.get(userId, projectId, () -> membershipRepository.findGrant(userId, projectId))
+                .orElseThrow(() -> new ProjectAccessDeniedException(projectId));
+    }
+
     public AuthUser getUserById(UUID id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -0,0 +1,128 @@
+package com.roger.auth_service.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * 进程内缓存共用的部分：每个条目带自己的过期时间，按容量淘汰，
+ * 并注册 {prefix}.hits / misses / evictions / size 四个指标。
+ * <p>
+ * 满了先清过期的，还是满的话随机清掉约 10%（ConcurrentHashMap 的迭代顺序近似随机）。
+ * 同一时间只让一个线程做清理，其他线程直接写入（容量上限是软上限）。
+ */
+final class ExpiringCache<K, V> {
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ExpiringCache(int maxSize, String metricPrefix, String description, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+
+        FunctionCounter.builder(metricPrefix + ".hits", hits, LongAdder::sum)
+                .description(description + " hits")
+                .register(meterRegistry);
+        FunctionCounter.builder(metricPrefix + ".misses", misses, LongAdder::sum)
+                .description(description + " misses")
+                .register(meterRegistry);
+        FunctionCounter.builder(metricPrefix + ".evictions", evictions, LongAdder::sum)
+                .description(description + " evictions (expiry, size or invalidation)")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".size", entries, Map::size)
+                .description(description + " entries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 命中且未过期返回 value，否则返回 null（过期的顺手删掉）
+     */
+    V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    void put(K key, V value, long expiresAtMillis) {
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    void remove(K key) {
+        if (entries.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    void removeIf(BiPredicate<K, V> filter) {
+        entries.entrySet().removeIf(e -> {
+            boolean match = filter.test(e.getKey(), e.getValue().value());
+            if (match) {
+                evictions.increment();
+            }
+            return match;
+        });
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAtMillis() <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+
+            int target = maxSize - Math.max(1, maxSize / 10);
+            it = entries.values().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.roger.auth_service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内 token bucket，用 GCRA 实现：每个 key 只存一个"理论到达时间"（TAT），
+ * 放行 = 一次 CAS，不加锁。
+ * <p>
+ * 每个维度（ip / email / project）一张表，各自最多 maxEntries 个 key：大量不同 email 的喷射只会挤满 email 表。
+ * TAT 已经落后于当前时间的 bucket 是满的（空闲），删掉和重新创建等价，所以定期清理、以及表满时先只删空闲的。
+ * 清理后仍然满，就再删掉 TAT 最小的一成 bucket（欠账最少、最接近满的，删掉损失最小），新 key 照常建 bucket，
+ * 不会因为表满而放行。
+ * <p>
+ * 一次请求的多个 permit 先全部检查、再依次扣减；并发下检查之后被别人扣光的，退还已经扣掉的。
+ */
+@Slf4j
+public class InMemoryRateLimiterBackend implements RateLimiterBackend {
+
+    private final int maxEntries;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiterBackend(int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Optional<Rejection> tryAcquire(List<Permit> permits) {
+        long now = System.nanoTime();
+
+        for (Permit permit : permits) {
+            AtomicLong tat = table(permit.dimension()).buckets.get(permit.key());
+            long wait = tat == null ? 0 : waitFor(tat.get(), now, permit);
+            if (wait > 0) {
+                return Optional.of(new Rejection(permit, wait));
+            }
+        }
+
+        AtomicLong[] charged = new AtomicLong[permits.size()];
+        for (int i = 0; i < permits.size(); i++) {
+            Permit permit = permits.get(i);
+            AtomicLong tat = table(permit.dimension()).bucket(permit.key(), now);
+            long wait = charge(tat, now, permit);
+            if (wait > 0) {
+                for (int j = 0; j < i; j++) {
+                    charged[j].addAndGet(-permits.get(j).emissionInterval());
+                }
+                return Optional.of(new Rejection(permit, wait));
+            }
+            charged[i] = tat;
+        }
+        return Optional.empty();
+    }
+
+    // 允许的突发：capacity 个 token = TAT 最多比 now 超前 (capacity - 1) 个间隔
+    private static long waitFor(long tat, long now, Permit permit) {
+        long tolerance = (permit.capacity() - 1) * permit.emissionInterval();
+        return Math.max(tat, now) - tolerance - now;
+    }
+
+    private static long charge(AtomicLong tat, long now, Permit permit) {
+        while (true) {
+            long current = tat.get();
+            long wait = waitFor(current, now, permit);
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, Math.max(current, now) + permit.emissionInterval())) {
+                return 0;
+            }
+        }
+    }
+
+    private Table table(String dimension) {
+        Table table = tables.get(dimension);
+        return table != null ? table : tables.computeIfAbsent(dimension, this::newTable);
+    }
+
+    private Table newTable(String dimension) {
+        Table table = new Table();
+        Gauge.builder("auth.rate_limit.buckets", table.buckets, Map::size)
+                .description("Rate limiter buckets held in memory")
+                .tag("dimension", dimension)
+                .register(meterRegistry);
+        return table;
+    }
+
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Table table : tables.values()) {
+            table.sweep(now, false);
+        }
+    }
+
+    private final class Table {
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        private AtomicLong bucket(String key, long now) {
+            AtomicLong tat = buckets.get(key);
+            if (tat != null) {
+                return tat;
+            }
+            if (buckets.size() >= maxEntries) {
+                sweep(now, true);
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        /**
+         * 同一时间只有一个线程清理；其他线程照常建 bucket（上限是软的）
+         */
+        private void sweep(long now, boolean full) {
+            if (!sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                int before = buckets.size();
+                buckets.values().removeIf(tat -> tat.get() <= now);
+                if (full && buckets.size() >= maxEntries) {
+                    long[] tats = buckets.values().stream().mapToLong(AtomicLong::get).toArray();
+                    Arrays.sort(tats);
+                    long threshold = tats[tats.length / 10];
+                    buckets.values().removeIf(tat -> tat.get() <= threshold);
+                }
+                int removed = before - buckets.size();
+                if (removed > 0) {
+                    log.debug("Evicted {} rate limiter buckets", removed);
+                }
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+}
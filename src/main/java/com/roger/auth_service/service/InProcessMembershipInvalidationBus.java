@@ -0,0 +1,25 @@
+package com.roger.auth_service.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 单节点 / 测试用：直接同步回调本进程里的订阅者
+ */
+public class InProcessMembershipInvalidationBus implements MembershipInvalidationBus {
+
+    private final List<Consumer<MembershipInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(MembershipInvalidation invalidation) {
+        for (Consumer<MembershipInvalidation> listener : listeners) {
+            listener.accept(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<MembershipInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,45 @@
+package com.roger.auth_service.service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 可复用的有状态对象（Mac / MessageDigest / buffer）的小对象池，替代 ThreadLocal。
+ * <p>
+ * ThreadLocal 在平台线程池里没问题，但虚拟线程是一请求一线程，ThreadLocal 每次都会新建、
+ * 用完就丢，等于没缓存。这里用无锁队列：借不到就新建，还回来时超过上限就丢弃。
+ */
+final class InstancePool<T> {
+
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Supplier<T> factory;
+    private final int maxIdle;
+
+    InstancePool(Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    InstancePool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    T borrow() {
+        T instance = idle.poll();
+        if (instance == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return instance;
+    }
+
+    void release(T instance) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(instance);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
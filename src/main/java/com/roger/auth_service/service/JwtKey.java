@@ -0,0 +1,26 @@
+package com.roger.auth_service.service;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.security.Key;
+import java.util.Map;
+
+/**
+ * 密钥环里的一把 key
+ *
+ * @param kid             header 里的 kid；HS256 旧 key 为 null
+ * @param algorithm       HS256 / RS256 / ES256
+ * @param signingKey      私钥（或 HS256 secret）；只用来校验的 key 为 null
+ * @param verificationKey 公钥（或 HS256 secret）
+ * @param jwk             发布到 JWKS 的公钥参数；HS256 为 null（对称 key 不发布）
+ */
+public record JwtKey(String kid,
+                     SignatureAlgorithm algorithm,
+                     Key signingKey,
+                     Key verificationKey,
+                     Map<String, Object> jwk) {
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+}
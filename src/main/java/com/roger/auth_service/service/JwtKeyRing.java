@@ -0,0 +1,307 @@
+package com.roger.auth_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roger.auth_service.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * JWT 密钥环：当前签发 key + 轮换期间仍然有效的旧 key。
+ * <p>
+ * 校验时按 header 里的 kid 在不可变 Map 里直接取 key（O(1)），header 的 alg 必须和 key 的算法一致，
+ * 防止用公钥当 HMAC secret 的算法混淆攻击。没有 kid 的 token 是切换前签发的 HS256 token。
+ * <p>
+ * 非对称公钥以 JWKS 格式发布，JSON 和 ETag 在启动时算好。
+ * 密钥环在启动时构建，轮换靠改配置 + 滚动重启（见 {@link JwtProperties#getKeys()}）。
+ * EdDSA 暂不支持：jjwt 0.11.x 没有 Ed25519 实现。
+ */
+@Slf4j
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Pattern KID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final JwtProperties jwtProperties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, JwtKey> byKid;
+    private JwtKey activeKey;
+    private JwtKey legacyKey;
+    private long legacyUntilMillis = Long.MAX_VALUE;
+
+    private byte[] jwksJson;
+    private String jwksETag;
+
+    public JwtKeyRing(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+    }
+
+    @PostConstruct
+    public void init() {
+        SignatureAlgorithm algorithm = algorithm(jwtProperties.getAlgorithm());
+
+        JwtKey hs256 = null;
+        if (jwtProperties.getSecret() != null) {
+            var secret = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+            hs256 = new JwtKey(null, SignatureAlgorithm.HS256, secret, secret, null);
+        }
+
+        Map<String, JwtKey> keys = new LinkedHashMap<>();
+        if (algorithm == SignatureAlgorithm.HS256) {
+            if (hs256 == null) {
+                throw new IllegalStateException("auth.jwt.secret is required for HS256");
+            }
+            activeKey = hs256;
+            legacyKey = hs256;
+        } else {
+            for (JwtProperties.Key config : jwtProperties.getKeys()) {
+                JwtKey key = load(config, algorithm);
+                if (keys.putIfAbsent(key.kid(), key) != null) {
+                    throw new IllegalStateException("Duplicate JWT kid: " + key.kid());
+                }
+            }
+            if (keys.isEmpty()) {
+                if (!jwtProperties.isAllowEphemeralKeys()) {
+                    throw new IllegalStateException("auth.jwt.algorithm=" + algorithm.getValue() +
+                            " requires auth.jwt.keys (auth.jwt.allow-ephemeral-keys is only for local development)");
+                }
+                JwtKey generated = generate(algorithm);
+                keys.put(generated.kid(), generated);
+                log.warn("No auth.jwt.keys configured, generated an ephemeral {} key kid={}. " +
+                        "Tokens will not survive a restart and will not verify on other nodes.",
+                        algorithm, generated.kid());
+            }
+            activeKey = selectActive(keys);
+            if (jwtProperties.isAcceptLegacyHs256()) {
+                if (hs256 == null || jwtProperties.getLegacyHs256Until() == null) {
+                    throw new IllegalStateException(
+                            "auth.jwt.accept-legacy-hs256 requires auth.jwt.secret and auth.jwt.legacy-hs256-until");
+                }
+                legacyKey = hs256;
+                legacyUntilMillis = jwtProperties.getLegacyHs256Until().toEpochMilli();
+            }
+        }
+
+        this.byKid = Map.copyOf(keys);
+        buildJwks(keys.values().stream().toList());
+
+        log.info("JWT key ring: signing alg={} kid={} keys={} legacyHs256={}",
+                activeKey.algorithm(), activeKey.kid(), keys.keySet(),
+                legacyKey == null ? "off" : jwtProperties.getLegacyHs256Until() == null
+                        ? "on" : "until " + jwtProperties.getLegacyHs256Until());
+    }
+
+    /**
+     * 当前签发用的 key
+     */
+    public JwtKey activeKey() {
+        return activeKey;
+    }
+
+    public AccessTokenEncoder newEncoder() {
+        return new AccessTokenEncoder(activeKey.kid(), activeKey.algorithm(), activeKey.signingKey());
+    }
+
+    public byte[] jwksJson() {
+        return jwksJson;
+    }
+
+    /**
+     * 强 ETag（带引号），JWKS 内容的 SHA-256 前 16 字节
+     */
+    public String jwksETag() {
+        return jwksETag;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        JwtKey key = kid == null
+                ? (System.currentTimeMillis() < legacyUntilMillis ? legacyKey : null)
+                : byKid.get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("JWT alg " + header.getAlgorithm() +
+                    " does not match key " + kid + " (" + key.algorithm().getValue() + ")");
+        }
+        return key.verificationKey();
+    }
+
+    private JwtKey selectActive(Map<String, JwtKey> keys) {
+        String activeKid = jwtProperties.getActiveKid();
+        if (activeKid != null) {
+            JwtKey key = keys.get(activeKid);
+            if (key == null || !key.canSign()) {
+                throw new IllegalStateException("auth.jwt.active-kid " + activeKid + " has no private key");
+            }
+            return key;
+        }
+        return keys.values().stream()
+                .filter(JwtKey::canSign)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("auth.jwt.keys has no private key to sign with"));
+    }
+
+    private static JwtKey load(JwtProperties.Key config, SignatureAlgorithm defaultAlgorithm) {
+        String kid = config.getKid();
+        if (kid == null || !KID.matcher(kid).matches()) {
+            throw new IllegalStateException("Invalid JWT kid: " + kid);
+        }
+        SignatureAlgorithm algorithm = config.getAlgorithm() == null
+                ? defaultAlgorithm
+                : algorithm(config.getAlgorithm());
+        if (algorithm == SignatureAlgorithm.HS256) {
+            throw new IllegalStateException("auth.jwt.keys only holds asymmetric keys, kid=" + kid);
+        }
+        String keyType = algorithm == SignatureAlgorithm.RS256 ? "RSA" : "EC";
+
+        try {
+            KeyFactory factory = KeyFactory.getInstance(keyType);
+            PrivateKey privateKey = config.getPrivateKeyLocation() == null ? null
+                    : factory.generatePrivate(new PKCS8EncodedKeySpec(pem(config.getPrivateKeyLocation())));
+
+            PublicKey publicKey;
+            if (config.getPublicKeyLocation() != null) {
+                publicKey = factory.generatePublic(new X509EncodedKeySpec(pem(config.getPublicKeyLocation())));
+            } else if (privateKey instanceof RSAPrivateCrtKey rsa) {
+                publicKey = factory.generatePublic(new RSAPublicKeySpec(rsa.getModulus(), rsa.getPublicExponent()));
+            } else {
+                throw new IllegalStateException("public-key-location is required for kid=" + kid);
+            }
+            return new JwtKey(kid, algorithm, privateKey, publicKey, jwk(kid, algorithm, publicKey));
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Cannot load JWT key kid=" + kid, e);
+        }
+    }
+
+    private static JwtKey generate(SignatureAlgorithm algorithm) {
+        try {
+            KeyPair pair;
+            if (algorithm == SignatureAlgorithm.RS256) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                pair = generator.generateKeyPair();
+            } else {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                pair = generator.generateKeyPair();
+            }
+            String kid = "ephemeral-" + UUID.randomUUID().toString().substring(0, 8);
+            return new JwtKey(kid, algorithm, pair.getPrivate(), pair.getPublic(),
+                    jwk(kid, algorithm, pair.getPublic()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate " + algorithm + " key", e);
+        }
+    }
+
+    private static Map<String, Object> jwk(String kid, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        if (publicKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(unsigned(rsa.getModulus(), 0)));
+            jwk.put("e", base64Url(unsigned(rsa.getPublicExponent(), 0)));
+        } else if (publicKey instanceof ECPublicKey ec) {
+            if (ec.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("ES256 requires a P-256 key, kid=" + kid);
+            }
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(unsigned(ec.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url(unsigned(ec.getW().getAffineY(), 32)));
+        } else {
+            throw new IllegalStateException("Unsupported public key type for kid=" + kid);
+        }
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        jwk.put("kid", kid);
+        return jwk;
+    }
+
+    private void buildJwks(List<JwtKey> keys) {
+        List<Map<String, Object>> jwks = keys.stream().map(JwtKey::jwk).toList();
+        try {
+            this.jwksJson = objectMapper.writeValueAsBytes(Map.of("keys", jwks));
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwksJson);
+            this.jwksETag = "\"" + base64Url(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (JsonProcessingException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot build JWKS", e);
+        }
+    }
+
+    private static SignatureAlgorithm algorithm(String name) {
+        return switch (name.toUpperCase()) {
+            case "HS256" -> SignatureAlgorithm.HS256;
+            case "RS256" -> SignatureAlgorithm.RS256;
+            case "ES256" -> SignatureAlgorithm.ES256;
+            default -> throw new IllegalStateException("Unsupported JWT algorithm: " + name +
+                    " (supported: HS256, RS256, ES256)");
+        };
+    }
+
+    private static byte[] pem(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            String text = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            String body = text.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(body);
+        }
+    }
+
+    /**
+     * 无符号大端字节；length > 0 时左侧补零到固定长度（EC 坐标）
+     */
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            return padded;
+        }
+        return bytes;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
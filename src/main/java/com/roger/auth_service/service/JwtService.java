@@ -1,18 +1,22 @@
 package com.roger.auth_service.service;
 
 import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.security.VerifiedToken;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -20,87 +24,136 @@ import java.util.UUID;
 public class JwtService {
 
     private final JwtProperties jwtProperties;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtKeyRing keyRing;
+    private final MeterRegistry meterRegistry;
 
-    private SecretKey signingKey;
+    // JwtParser 是线程安全的，init 时建一次，避免每次校验都重新 build；key 按 kid 从密钥环里取
+    private JwtParser jwtParser;
+
+    // 签发走专用编码器，不走 Jwts.builder()
+    private AccessTokenEncoder accessTokenEncoder;
+
+    // 签发 / 验签耗时；验签只统计缓存未命中的那一次完整校验
+    private Timer signTimer;
+    private Timer verifyTimer;
 
     @PostConstruct
     public void init() {
-        // 用配置里的 secret 初始化 HS256 key
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build();
+        this.accessTokenEncoder = keyRing.newEncoder();
+        this.signTimer = jwtTimer("sign");
+        this.verifyTimer = jwtTimer("verify");
     }
 
     /**
-     * 生成访问 token（目前基础版：sub + email，后面可以加 projectId / roles）
+     * 生成访问 token：sub + jti + iat + exp + email + project_id + roles
      */
     public String generateAccessToken(UUID userId,
                                       String email,
                                       String projectId,
-                                      java.util.List<String> roles) {
-        Instant now = Instant.now();
-        Instant exp = now.plusSeconds(jwtProperties.getAccessTokenValiditySeconds());
-
-        return Jwts.builder()
-                .setSubject(userId.toString())
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(exp))
-                .claim("email", email)
-                .claim("project_id", projectId)
-                .claim("roles", roles)
-                .signWith(signingKey, SignatureAlgorithm.HS256)
-                .compact();
+                                      List<String> roles) {
+        long now = System.currentTimeMillis() / 1000;
+        long exp = now + jwtProperties.getAccessTokenValiditySeconds();
+
+        long start = System.nanoTime();
+        try {
+            return accessTokenEncoder.encode(userId, newJti(), email, projectId, roles, now, exp);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            signTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            RequestTimings.record(RequestTimings.Phase.SIGN, elapsed);
+        }
     }
 
+    /**
+     * 校验签名 + 过期时间，并一次性解析出所有 claims。
+     * 每个请求只应调用一次，非法 token 抛 JwtException / IllegalArgumentException。
+     * 开启缓存时，同一个 token 第二次起只是一次 hash 查找。
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedTokenCache.TokenKey key = cacheKey(token);
+        VerifiedToken cached = cached(key);
+        if (cached != null) {
+            return cached;
+        }
+        return verify(token, key);
+    }
 
     /**
-     * 从 token 中解析 userId（sub）
+     * 缓存 key；缓存关闭时返回 null
      */
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = parseToken(token);
-        return UUID.fromString(claims.getSubject());
+    public VerifiedTokenCache.TokenKey cacheKey(String token) {
+        return verifiedTokenCache.isEnabled() ? verifiedTokenCache.keyOf(token) : null;
     }
 
     /**
-     * 从 token 中取 email（可选）
+     * 只查缓存，不做签名校验；未命中（或缓存关闭）返回 null
      */
-    public String getEmailFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("email", String.class);
+    public VerifiedToken cached(VerifiedTokenCache.TokenKey key) {
+        return key == null ? null : verifiedTokenCache.get(key);
     }
 
     /**
-     * 校验 token 是否合法 & 未过期
+     * 完整校验并写入缓存（key 来自 {@link #cacheKey(String)}，可以为 null）
      */
-    public boolean isTokenValid(String token) {
+    public VerifiedToken verify(String token, VerifiedTokenCache.TokenKey key) {
+        VerifiedToken verified = parse(token);
+        if (key != null) {
+            verifiedTokenCache.put(key, verified);
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        long start = System.nanoTime();
+        Claims claims;
         try {
-            parseToken(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.warn("Invalid JWT token: {}", e.getMessage());
-            return false;
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+        String jti = claims.getId();
+        return new VerifiedToken(
+                UUID.fromString(claims.getSubject()),
+                jti == null ? null : UUID.fromString(jti),
+                claims.get("email", String.class),
+                claims.get("project_id", String.class),
+                rolesOf(claims),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration())
+        );
     }
 
-    private Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private Timer jwtTimer(String operation) {
+        return Timer.builder("auth.jwt.duration")
+                .description("JWT sign / verify time")
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 
-    public String getProjectIdFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("project_id", String.class);
+    /**
+     * 随机 v4 UUID。jti 在签名内，不需要不可预测，用 ThreadLocalRandom 避开 SecureRandom 的开销
+     */
+    private static UUID newJti() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
     }
 
-    public java.util.List<String> getRolesFromToken(String token) {
-        Claims claims = parseToken(token);
+    private static List<String> rolesOf(Claims claims) {
         Object value = claims.get("roles");
-        if (value instanceof java.util.List<?> list) {
+        if (value instanceof List<?> list) {
             return list.stream().map(String::valueOf).toList();
         }
-        return java.util.Collections.emptyList();
+        return Collections.emptyList();
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 
 }
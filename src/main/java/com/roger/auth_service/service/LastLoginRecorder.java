@@ -0,0 +1,109 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.LastLoginProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * lastLoginAt 的 write-behind 缓冲：
+ * 登录时只在内存里按用户合并（保留最新时间），定时用一条
+ * UPDATE ... FROM (VALUES ...) 批量写回，关闭时会把剩下的全部刷掉。
+ * 登录事务里不再有这一行 auth_user 的 UPDATE（和它的行锁）。
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LastLoginProperties properties;
+
+    private final ConcurrentHashMap<UUID, Instant> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+                             LastLoginProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        Gauge.builder("auth.last_login.pending", pending, Map::size)
+                .description("lastLoginAt updates waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    public void record(UUID userId, Instant loginAt) {
+        pending.merge(userId, loginAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            int batchSize = Math.max(1, properties.getBatchSize());
+            List<Map.Entry<UUID, Instant>> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (UUID userId : pending.keySet()) {
+                Instant loginAt = pending.remove(userId);
+                if (loginAt == null) {
+                    continue;
+                }
+                batch.add(Map.entry(userId, loginAt));
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private void write(List<Map.Entry<UUID, Instant>> batch) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE auth_user u SET last_login_at = GREATEST(u.last_login_at, v.ts) FROM (VALUES ");
+        Object[] args = new Object[batch.size() * 2];
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append("(CAST(? AS uuid), CAST(? AS timestamptz))");
+            args[i * 2] = batch.get(i).getKey();
+            args[i * 2 + 1] = batch.get(i).getValue().atOffset(ZoneOffset.UTC);
+        }
+        // GREATEST：多节点乱序刷库时也不会把时间往回写
+        sql.append(") AS v(id, ts) WHERE u.id = v.id");
+
+        try {
+            jdbcTemplate.update(sql.toString(), args);
+        } catch (RuntimeException e) {
+            // 写失败就放回缓冲区，下次再刷
+            log.warn("Failed to flush {} lastLoginAt updates, will retry: {}", batch.size(), e.getMessage());
+            for (Map.Entry<UUID, Instant> entry : batch) {
+                record(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.MembershipCacheProperties;
+import com.roger.auth_service.repo.MembershipGrant;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 签发 token 时用的 (userId, projectId) -> MembershipGrant 缓存，挡在
+ * AuthUserProjectMembershipRepository 前面。
+ * <p>
+ * 按 TTL 和容量淘汰；成员关系变化时通过 {@link MembershipInvalidationBus} 广播失效，
+ * 所有节点（包括自己）收到后删掉对应条目。非成员（查不到）不缓存，
+ * 新加的成员不会被旧的"查不到"挡住。
+ */
+@Slf4j
+@Component
+public class MembershipCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final MembershipInvalidationBus bus;
+    private final ExpiringCache<Key, MembershipGrant> entries;
+
+    public MembershipCache(MembershipCacheProperties properties,
+                           MembershipInvalidationBus bus,
+                           MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ttlMillis = properties.getTtl().toMillis();
+        this.bus = bus;
+        this.entries = new ExpiringCache<>(properties.getMaxSize(),
+                "auth.membership.cache", "Membership cache", meterRegistry);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    public Optional<MembershipGrant> get(UUID userId, String projectId, Supplier<Optional<MembershipGrant>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(userId, projectId);
+        MembershipGrant cached = entries.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<MembershipGrant> loaded = loader.get();
+        loaded.ifPresent(grant -> entries.put(key, grant, System.currentTimeMillis() + ttlMillis));
+        return loaded;
+    }
+
+    /**
+     * 某个成员关系变了：广播到所有节点。在事务里调用时等提交之后再发，
+     * 否则别的请求可能在提交前又把旧值读回缓存。
+     */
+    public void evict(UUID userId, String projectId) {
+        publishAfterCommit(new MembershipInvalidation(userId, projectId));
+    }
+
+    /**
+     * 用户本身变了（禁用、删除、改邮箱）：该用户所有项目的缓存都失效
+     */
+    public void evictUser(UUID userId) {
+        publishAfterCommit(new MembershipInvalidation(userId, null));
+    }
+
+    private void publishAfterCommit(MembershipInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bus.publish(invalidation);
+                }
+            });
+        } else {
+            bus.publish(invalidation);
+        }
+    }
+
+    private void onInvalidation(MembershipInvalidation invalidation) {
+        if (invalidation.projectId() != null) {
+            entries.remove(new Key(invalidation.userId(), invalidation.projectId()));
+            return;
+        }
+        entries.removeIf((key, grant) -> key.userId().equals(invalidation.userId()));
+    }
+
+    private record Key(UUID userId, String projectId) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.roger.auth_service.service;
+
+import java.util.UUID;
+
+/**
+ * 成员关系变更通知。projectId 为 null 表示该用户在所有项目下的缓存都失效
+ */
+public record MembershipInvalidation(UUID userId, String projectId) {
+}
@@ -0,0 +1,16 @@
+package com.roger.auth_service.service;
+
+import java.util.function.Consumer;
+
+/**
+ * 成员关系缓存失效的广播通道。
+ * 多节点部署时换成跨节点实现（Redis pub/sub、Postgres NOTIFY 等），
+ * 只要声明一个这个类型的 bean 就会替换掉默认的进程内实现。
+ * publish 的消息也要投递给本节点自己的订阅者。
+ */
+public interface MembershipInvalidationBus {
+
+    void publish(MembershipInvalidation invalidation);
+
+    void subscribe(Consumer<MembershipInvalidation> listener);
+}
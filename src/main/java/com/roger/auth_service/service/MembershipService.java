@@ -0,0 +1,50 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.entity.ProjectRole;
+import com.roger.auth_service.exception.ProjectAccessDeniedException;
+import com.roger.auth_service.exception.RoleChangeNotAllowedException;
+import com.roger.auth_service.repo.MembershipGrant;
+import com.roger.auth_service.repo.AuthUserProjectMembershipRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MembershipService {
+
+    private final AuthUserProjectMembershipRepository membershipRepository;
+    private final MembershipCache membershipCache;
+
+    /**
+     * @param actorId   调用方
+     * @param actorRole 调用方在该项目的角色（平台管理员按 OWNER 算）
+     */
+    @Transactional
+    public void changeRole(UUID actorId, ProjectRole actorRole, UUID userId, String projectId, ProjectRole role) {
+        if (userId.equals(actorId)) {
+            throw new RoleChangeNotAllowedException("Cannot change your own role");
+        }
+        MembershipGrant current = membershipRepository.findGrant(userId, projectId)
+                .orElseThrow(() -> new ProjectAccessDeniedException(projectId));
+        // 只有 OWNER 能授予或收回 OWNER；ADMIN 只管 ADMIN / USER
+        if (actorRole != ProjectRole.OWNER && (role == ProjectRole.OWNER || current.role() == ProjectRole.OWNER)) {
+            throw new RoleChangeNotAllowedException("Only an OWNER can grant or revoke OWNER");
+        }
+
+        int updated = membershipRepository.updateRole(userId, projectId, role, Instant.now());
+        if (updated == 0) {
+            throw new ProjectAccessDeniedException(projectId);
+        }
+        log.info("Changed role userId={} projectId={} role={} -> {} by {}",
+                userId, projectId, current.role(), role, actorId);
+
+        // 提交后广播失效，所有节点的缓存都会删掉这一条
+        membershipCache.evict(userId, projectId);
+    }
+}
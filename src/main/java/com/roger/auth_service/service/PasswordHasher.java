@@ -0,0 +1,196 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.PasswordHashingProperties;
+import com.roger.auth_service.exception.PasswordHashingBusyException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码 hash（BCrypt encode / matches）放到专用的 CPU 线程池里做，不占 Tomcat 请求线程。
+ * <p>
+ * 线程数 = CPU 核数，队列有界；队列满了直接抛 {@link PasswordHashingBusyException}（503 + Retry-After），
+ * 登录风暴时不会把 /me 这类便宜的接口一起拖死。
+ * hash 算完之后在专用的 continuation 线程池上完成 future，后续的 DB / 签发逻辑不占 hash 线程。
+ * continuation 线程数默认等于 Hikari 连接池大小（后续逻辑每个都要一个连接，多了也只是等连接），
+ * 队列同样有界，满了也是 {@link PasswordHashingBusyException}。
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor continuationExecutor;
+    private final ThreadPoolExecutor executor;
+    private final PasswordHashingProperties properties;
+
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          PasswordHashingProperties properties,
+                          DataSource dataSource,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                new NamedThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        int continuationThreads = properties.getContinuationThreads() > 0
+                ? properties.getContinuationThreads()
+                : connectionPoolSize(dataSource);
+        this.continuationExecutor = new ThreadPoolExecutor(
+                continuationThreads, continuationThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getContinuationQueueCapacity())),
+                new NamedThreadFactory("password-hash-continuation-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.waitTimer = Timer.builder("auth.password_hash.wait")
+                .description("Time a password hash task waited in the queue")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password_hash.duration")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password_hash.rejected")
+                .description("Password hash tasks or their continuations rejected because a queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password_hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hash tasks waiting in the queue")
+                .register(meterRegistry);
+        Gauge.builder("auth.password_hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hash tasks currently running")
+                .register(meterRegistry);
+
+        Gauge.builder("auth.password_hash.continuation.queue.depth", continuationExecutor, e -> e.getQueue().size())
+                .description("Post-hash continuations (DB work, token issuing) waiting in the queue")
+                .register(meterRegistry);
+
+        log.info("Password hashing executor: threads={} queueCapacity={} continuationThreads={} continuationQueueCapacity={}",
+                threads, properties.getQueueCapacity(), continuationThreads, properties.getContinuationQueueCapacity());
+    }
+
+    private static int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size: {}", e.getMessage());
+        }
+        return 10; // Hikari 的默认 maximumPoolSize
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 旧算法 / 旧 cost 的 hash（不做 hash 计算，只解析格式）
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        // Server-Timing：hash 耗时记到发起请求的那个 RequestTimings 上，continuation 里的 SQL / 签发也继续记
+        RequestTimings timings = RequestTimings.current();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                T result;
+                try {
+                    result = task.get();
+                } catch (Throwable t) {
+                    continueWith(future, () -> future.completeExceptionally(t));
+                    return;
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    hashTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                    if (timings != null) {
+                        timings.add(RequestTimings.Phase.HASH, elapsed);
+                    }
+                }
+                continueWith(future, () -> {
+                    RequestTimings previous = RequestTimings.bind(timings);
+                    try {
+                        future.complete(result);
+                    } finally {
+                        RequestTimings.bind(previous);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(properties.getRetryAfter());
+        }
+        return future;
+    }
+
+    /**
+     * continuation 队列满了：这次 hash 白算了，但不能无限排队，同样快速 503
+     */
+    private void continueWith(CompletableFuture<?> future, Runnable continuation) {
+        try {
+            continuationExecutor.execute(continuation);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(new PasswordHashingBusyException(properties.getRetryAfter()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        continuationExecutor.shutdown();
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.PasswordHashingProperties;
+import com.roger.auth_service.exception.PasswordHashingBusyException;
+import com.roger.auth_service.repo.AuthUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+/**
+ * 登录成功后，把参数过时的密码 hash 异步升级到当前算法 / cost。
+ * <p>
+ * 不阻塞登录响应：重算放进 PasswordHasher 的线程池，池满就跳过（下次登录再试）；
+ * 写回用 CAS（旧 hash 没变才替换），不会覆盖并发的改密码。
+ */
+@Slf4j
+@Component
+public class PasswordRehasher {
+
+    private final PasswordHasher passwordHasher;
+    private final AuthUserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordHashingProperties properties;
+
+    private final Counter upgraded;
+    private final Counter conflicted;
+    private final Counter skipped;
+    private final Counter failed;
+
+    public PasswordRehasher(PasswordHasher passwordHasher,
+                            AuthUserRepository userRepository,
+                            TransactionTemplate transactionTemplate,
+                            PasswordHashingProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.passwordHasher = passwordHasher;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.upgraded = counter(meterRegistry, "upgraded");
+        this.conflicted = counter(meterRegistry, "conflict");
+        this.skipped = counter(meterRegistry, "skipped");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.password_hash.rehash")
+                .description("Lazy password hash upgrades on login")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 只在密码已经校验通过之后调用
+     */
+    public void rehashIfNeeded(UUID userId, String rawPassword, String currentHash) {
+        if (!properties.isRehashOnLogin() || !passwordHasher.needsUpgrade(currentHash)) {
+            return;
+        }
+
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAccept(newHash -> {
+                        Integer updated = transactionTemplate.execute(status ->
+                                userRepository.replacePasswordHash(userId, currentHash, newHash));
+                        if (updated != null && updated > 0) {
+                            upgraded.increment();
+                            log.debug("Upgraded password hash for userId={}", userId);
+                        } else {
+                            conflicted.increment();
+                        }
+                    })
+                    .exceptionally(ex -> {
+                        failed.increment();
+                        log.warn("Password rehash failed for userId={}", userId, ex);
+                        return null;
+                    });
+        } catch (PasswordHashingBusyException e) {
+            // 登录高峰时让位给真正的登录请求
+            skipped.increment();
+        }
+    }
+}
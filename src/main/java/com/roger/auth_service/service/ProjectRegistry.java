@@ -0,0 +1,161 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.ProjectRegistryProperties;
+import com.roger.auth_service.entity.AuthProject;
+import com.roger.auth_service.exception.ProjectInactiveException;
+import com.roger.auth_service.exception.ProjectNotFoundException;
+import com.roger.auth_service.repo.AuthProjectRepository;
+import com.roger.auth_service.repo.ProjectVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * auth_project 的进程内注册表：register / login / refresh 解析项目只是一次 map 查找。
+ * <p>
+ * 读：volatile 快照（不可变 Map），无锁。写：加锁后 copy-on-write 整体替换快照。
+ * 失效：修改项目（ProjectService）提交后 invalidate、管理接口 reload，另外定时比对表的版本
+ * （行数 + max(updated_at)），有变化就整表重载。快照里没有的 id 会回源查一次（read-through），
+ * 查不到的 id 短时间记下来（negative-ttl），不让乱填的 projectId 每次都打到库上。
+ */
+@Slf4j
+@Component
+public class ProjectRegistry {
+
+    private final AuthProjectRepository projectRepository;
+    private final long negativeTtlMillis;
+    private final ExpiringCache<String, Boolean> missing;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Map<String, RegisteredProject> projects = Map.of();
+    private volatile ProjectVersion version;
+
+    public ProjectRegistry(AuthProjectRepository projectRepository,
+                           ProjectRegistryProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.projectRepository = projectRepository;
+        this.negativeTtlMillis = properties.getNegativeTtl().toMillis();
+        this.missing = new ExpiringCache<>(properties.getNegativeMaxSize(),
+                "auth.project_registry.negative_cache", "Unknown project id cache", meterRegistry);
+    }
+
+    /**
+     * 项目必须存在且 active
+     */
+    public RegisteredProject require(String projectId) {
+        RegisteredProject project = find(projectId)
+                .orElseThrow(() -> new ProjectNotFoundException(projectId));
+        if (!project.active()) {
+            throw new ProjectInactiveException(projectId);
+        }
+        return project;
+    }
+
+    public Optional<RegisteredProject> find(String projectId) {
+        if (projectId == null) {
+            return Optional.empty();
+        }
+        RegisteredProject project = projects.get(projectId);
+        if (project != null) {
+            return Optional.of(project);
+        }
+        if (negativeTtlMillis > 0 && missing.get(projectId) != null) {
+            return Optional.empty();
+        }
+        // read-through：新建的项目还没进快照
+        Optional<RegisteredProject> loaded = projectRepository.findById(projectId).map(RegisteredProject::of);
+        if (loaded.isPresent()) {
+            put(loaded.get());
+        } else if (negativeTtlMillis > 0) {
+            missing.put(projectId, Boolean.TRUE, System.currentTimeMillis() + negativeTtlMillis);
+        }
+        return loaded;
+    }
+
+    /**
+     * 在事务里调用时等提交之后再删，否则别的请求可能在提交前又把旧值读回快照
+     */
+    public void invalidate(String projectId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(projectId);
+                }
+            });
+        } else {
+            evict(projectId);
+        }
+    }
+
+    private void evict(String projectId) {
+        missing.remove(projectId);
+        writeLock.lock();
+        try {
+            if (projects.containsKey(projectId)) {
+                Map<String, RegisteredProject> next = new HashMap<>(projects);
+                next.remove(projectId);
+                projects = Map.copyOf(next);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadAll() {
+        writeLock.lock();
+        try {
+            ProjectVersion current = projectRepository.currentVersion();
+            Map<String, RegisteredProject> next = new HashMap<>();
+            for (AuthProject project : projectRepository.findAll()) {
+                next.put(project.getId(), RegisteredProject.of(project));
+            }
+            projects = Map.copyOf(next);
+            version = current;
+            missing.clear();
+            log.info("Project registry loaded {} projects", next.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 定时比对版本，表有变化（包括别的节点改的）才重载
+     */
+    @Scheduled(fixedDelayString = "${auth.project-registry.refresh-interval:PT30S}",
+            initialDelayString = "${auth.project-registry.refresh-interval:PT30S}")
+    public void refreshIfChanged() {
+        try {
+            ProjectVersion current = projectRepository.currentVersion();
+            if (!Objects.equals(current, version)) {
+                log.debug("auth_project changed ({} -> {}), reloading registry", version, current);
+                reloadAll();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Project registry version check failed: {}", e.getMessage());
+        }
+    }
+
+    private void put(RegisteredProject project) {
+        writeLock.lock();
+        try {
+            Map<String, RegisteredProject> next = new HashMap<>(projects);
+            next.put(project.id(), project);
+            projects = Map.copyOf(next);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.dto.UpdateProjectRequestDTO;
+import com.roger.auth_service.entity.AuthProject;
+import com.roger.auth_service.exception.ProjectNotFoundException;
+import com.roger.auth_service.repo.AuthProjectRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectService {
+
+    private final AuthProjectRepository projectRepository;
+    private final ProjectRegistry projectRegistry;
+
+    @Transactional
+    public RegisteredProject update(String projectId, UpdateProjectRequestDTO req) {
+        AuthProject project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ProjectNotFoundException(projectId));
+        if (req.getName() != null) {
+            project.setName(req.getName());
+        }
+        if (req.getDescription() != null) {
+            project.setDescription(req.getDescription());
+        }
+        if (req.getActive() != null) {
+            project.setActive(req.getActive());
+        }
+        projectRepository.save(project);
+        log.info("Updated project projectId={} name={} active={}", projectId, project.getName(), project.isActive());
+
+        // 提交后本节点立即失效；其他节点靠 updated_at 变化的定时版本比对
+        projectRegistry.invalidate(projectId);
+        return RegisteredProject.of(project);
+    }
+}
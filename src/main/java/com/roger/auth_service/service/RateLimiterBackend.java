@@ -0,0 +1,34 @@
+package com.roger.auth_service.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 限流状态存储。默认 {@link InMemoryRateLimiterBackend}（每个节点各自计数）；
+ * 需要多节点共享额度时声明自己的 bean（例如基于 Redis 的 GCRA，一个脚本里检查 + 扣减所有 key）替换。
+ */
+public interface RateLimiterBackend {
+
+    /**
+     * 一次请求要扣的一个 bucket
+     *
+     * @param dimension        ip / email / project，后端可以按维度分开存（一个维度被灌满不影响其他维度）
+     * @param capacity         bucket 容量（允许的突发）
+     * @param emissionInterval 每补充一个 token 的间隔（纳秒）
+     */
+    record Permit(String dimension, String key, int capacity, long emissionInterval) {
+    }
+
+    /**
+     * @param waitNanos 距离这个 bucket 下一个可用 token 的纳秒数
+     */
+    record Rejection(Permit permit, long waitNanos) {
+    }
+
+    /**
+     * 所有 permit 都有余量才一起扣；任何一个超限就一个都不扣（被拒的请求不消耗其他维度的额度）
+     *
+     * @return empty 表示放行；否则是超限的那个 bucket
+     */
+    Optional<Rejection> tryAcquire(List<Permit> permits);
+}
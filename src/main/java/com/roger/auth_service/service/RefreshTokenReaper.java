@@ -0,0 +1,183 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.RefreshTokenProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定时分批删除过期 / 长期已撤销的 refresh token。
+ * <p>
+ * 每批一条 DELETE ... WHERE id IN (SELECT ... LIMIT n)，走 idx_refresh_expires /
+ * idx_refresh_revoked_at，批之间停一下，避免一次大事务把表和索引撑大。
+ * 多节点部署时用 Postgres advisory lock 做 leader guard，同一时间只有一个节点在删。
+ * <p>
+ * 顺带把超出 reuse grace 窗口的 rotated_at 清掉：这些行已经不能再走 grace，
+ * 清掉后才会离开 idx_refresh_active_project_user 这个部分索引。
+ */
+@Slf4j
+@Component
+public class RefreshTokenReaper {
+
+    // pg advisory lock key，任意固定值，"authpurg"
+    private static final long ADVISORY_LOCK_KEY = 0x6175746870757267L;
+
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM auth_refresh_token WHERE id IN (" +
+                    "SELECT id FROM auth_refresh_token WHERE expires_at < ? ORDER BY expires_at LIMIT ?)";
+
+    private static final String DELETE_REVOKED =
+            "DELETE FROM auth_refresh_token WHERE id IN (" +
+                    "SELECT id FROM auth_refresh_token WHERE revoked_at < ? ORDER BY revoked_at LIMIT ?)";
+
+    private static final String CLEAR_ROTATED =
+            "UPDATE auth_refresh_token SET rotated_at = NULL WHERE id IN (" +
+                    "SELECT id FROM auth_refresh_token WHERE rotated_at < ? ORDER BY rotated_at LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshTokenProperties.Purge properties;
+    private final Duration reuseGrace;
+
+    private final Counter expiredDeleted;
+    private final Counter revokedDeleted;
+    private final Counter rotationsCleared;
+    private final Counter skippedRuns;
+    private final Timer runTimer;
+    private final AtomicLong lastRunDeleted = new AtomicLong();
+
+    private volatile boolean stopping;
+
+    public RefreshTokenReaper(JdbcTemplate jdbcTemplate,
+                              RefreshTokenProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.getPurge();
+        this.reuseGrace = properties.getReuseGrace();
+
+        this.expiredDeleted = Counter.builder("auth.refresh_token.purge.deleted")
+                .tag("reason", "expired")
+                .description("Refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        this.revokedDeleted = Counter.builder("auth.refresh_token.purge.deleted")
+                .tag("reason", "revoked")
+                .description("Refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        this.rotationsCleared = Counter.builder("auth.refresh_token.purge.rotation_cleared")
+                .description("Rotated refresh tokens whose reuse grace window was closed by the purge job")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("auth.refresh_token.purge.skipped")
+                .description("Purge runs skipped because another node holds the lock")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.refresh_token.purge.duration")
+                .description("Duration of a full purge run")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_token.purge.last_run_deleted", lastRunDeleted, AtomicLong::get)
+                .description("Rows deleted by the last purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge.interval:PT1H}", initialDelayString = "PT1M")
+    public void purge() {
+        if (!properties.isEnabled() || stopping) {
+            return;
+        }
+        runTimer.record(() -> jdbcTemplate.execute((ConnectionCallback<Void>) this::purgeWithLock));
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * session 级 advisory lock 绑定在连接上，所以整轮清理都用同一个连接（autocommit，每批一个事务）
+     */
+    private Void purgeWithLock(Connection con) throws SQLException {
+        if (!tryLock(con)) {
+            skippedRuns.increment();
+            log.debug("Refresh token purge skipped: another node holds the lock");
+            return null;
+        }
+        try {
+            Timestamp cutoff = Timestamp.from(Instant.now().minus(properties.getRetention()));
+            long expired = runInBatches(con, DELETE_EXPIRED, cutoff, expiredDeleted);
+            long revoked = runInBatches(con, DELETE_REVOKED, cutoff, revokedDeleted);
+            lastRunDeleted.set(expired + revoked);
+            long cleared = runInBatches(con, CLEAR_ROTATED,
+                    Timestamp.from(Instant.now().minus(reuseGrace)), rotationsCleared);
+            log.info("Refresh token purge done: expired={} revoked={} rotationCleared={} cutoff={}",
+                    expired, revoked, cleared, cutoff);
+        } finally {
+            unlock(con);
+        }
+        return null;
+    }
+
+    // 每批一条语句（DELETE / UPDATE ... WHERE id IN (SELECT ... LIMIT n)），直到某批不满
+    private long runInBatches(Connection con, String sql, Timestamp cutoff, Counter counter) throws SQLException {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        long total = 0;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            while (!stopping) {
+                ps.setTimestamp(1, cutoff);
+                ps.setInt(2, batchSize);
+                int deleted = ps.executeUpdate();
+                total += deleted;
+                counter.increment(deleted);
+                if (deleted < batchSize) {
+                    break;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        long millis = properties.getPauseBetweenBatches().toMillis();
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean tryLock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            ps.execute();
+        }
+    }
+}
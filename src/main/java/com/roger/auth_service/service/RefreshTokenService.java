@@ -1,15 +1,23 @@
 package com.roger.auth_service.service;
 
+import com.roger.auth_service.config.RefreshTokenProperties;
 import com.roger.auth_service.entity.AuthRefreshToken;
 import com.roger.auth_service.exception.InvalidRefreshTokenException;
 import com.roger.auth_service.repo.AuthRefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.DigestUtils;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Slf4j
@@ -18,18 +26,81 @@ import java.util.UUID;
 public class RefreshTokenService {
 
     private final AuthRefreshTokenRepository repo;
+    private final RefreshTokenProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MembershipCache membershipCache;
 
     private static final long REFRESH_TOKEN_VALIDITY_SECONDS = 60L * 60 * 24 * 30; // 30 天
 
+    // 新 token 的 INSERT，接在下面的 CTE 后面
+    private static final String INSERT_SUCCESSOR =
+            "INSERT INTO auth_refresh_token " +
+                    "(id, user_id, project_id, token_digest, expires_at, revoked, created_at, user_agent, ip_address) " +
+                    "SELECT ?, user_id, project_id, ?, ?, false, now(), ?, ? FROM old " +
+                    "RETURNING user_id";
+
+    /**
+     * 轮换：条件 UPDATE 撤销旧 token（RETURNING）并记下接替它的新 token，同一条语句里 INSERT 新 token。
+     * 并发刷新同一个 token 时只有一个能命中 revoked = false，另一个拿不到行。
+     */
+    private static final String ROTATE =
+            "WITH old AS (" +
+                    "UPDATE auth_refresh_token SET revoked = true, revoked_at = now(), rotated_at = now(), replaced_by = ? " +
+                    "WHERE token_digest = ? AND project_id = ? AND revoked = false AND expires_at > now() " +
+                    "RETURNING user_id, project_id) " + INSERT_SUCCESSOR;
+
+    // 迁移期：老 token 只有 MD5 hex
+    private static final String ROTATE_WITH_LEGACY =
+            "WITH old AS (" +
+                    "UPDATE auth_refresh_token SET revoked = true, revoked_at = now(), rotated_at = now(), replaced_by = ? " +
+                    "WHERE (token_digest = ? OR token_hash = ?) AND project_id = ? AND revoked = false AND expires_at > now() " +
+                    "RETURNING user_id, project_id) " + INSERT_SUCCESSOR;
+
+    /**
+     * reuse grace：客户端重试时旧 token 可能刚被轮换掉（没收到响应）。
+     * 只认"被轮换"撤销的（rotated_at 非空，管理员撤销会清掉它）、在 grace 窗口内、并且它的接替者还没被用过的。
+     * <p>
+     * 每个旧 token 最多重放一次，而且重放后仍然只有一个有效的接替者：
+     * 撤销上次发出去的接替者、清掉旧 token 的 rotated_at（不能再走 grace）、改指向这次新发的。
+     * 旧 token 和接替者两行都 FOR UPDATE，和并发的重放 / 接替者自己的轮换串行。
+     */
+    private static final String ROTATE_WITHIN_GRACE =
+            "WITH prev AS (" +
+                    "SELECT t.id, t.replaced_by FROM auth_refresh_token t " +
+                    "JOIN auth_refresh_token s ON s.id = t.replaced_by " +
+                    "WHERE t.token_digest = ? AND t.project_id = ? AND t.revoked = true " +
+                    "AND t.rotated_at > ? AND t.expires_at > now() AND s.revoked = false " +
+                    "FOR UPDATE), " +
+                    "dropped AS (" +
+                    "UPDATE auth_refresh_token s SET revoked = true, revoked_at = now() " +
+                    "FROM prev WHERE s.id = prev.replaced_by), " +
+                    "old AS (" +
+                    "UPDATE auth_refresh_token t SET rotated_at = NULL, replaced_by = ? " +
+                    "FROM prev WHERE t.id = prev.id " +
+                    "RETURNING t.user_id, t.project_id) " + INSERT_SUCCESSOR;
+
+    private static final String EXPIRED =
+            "SELECT 1 FROM auth_refresh_token " +
+                    "WHERE token_digest = ? AND project_id = ? AND revoked = false AND expires_at <= now()";
+
+    private static final String EXPIRED_WITH_LEGACY =
+            "SELECT 1 FROM auth_refresh_token " +
+                    "WHERE (token_digest = ? OR token_hash = ?) AND project_id = ? AND revoked = false AND expires_at <= now() " +
+                    "LIMIT 1";
+
     public String generateAndStore(UUID userId, String projectId, String userAgent, String ip) {
+        return timer("issue").record(() -> store(userId, projectId, userAgent, ip));
+    }
+
+    private String store(UUID userId, String projectId, String userAgent, String ip) {
 
-        String plainToken = UUID.randomUUID().toString() + UUID.randomUUID();
-        String hashed = DigestUtils.md5DigestAsHex(plainToken.getBytes(StandardCharsets.UTF_8));
+        String plainToken = newPlainToken();
 
         AuthRefreshToken rt = new AuthRefreshToken();
         rt.setUserId(userId);
         rt.setProjectId(projectId);   // 🔥 加这里
-        rt.setTokenHash(hashed);
+        rt.setTokenDigest(digestToken(plainToken));
         rt.setExpiresAt(Instant.now().plusSeconds(REFRESH_TOKEN_VALIDITY_SECONDS));
         rt.setUserAgent(userAgent);
         rt.setIpAddress(ip);
@@ -39,35 +110,129 @@ public class RefreshTokenService {
         return plainToken;
     }
 
-    public AuthRefreshToken consume(String plainToken, String projectId) {
-        String hashed = DigestUtils.md5DigestAsHex(plainToken.getBytes(StandardCharsets.UTF_8));
+    /**
+     * 原子轮换 refresh token：撤销旧的 + 写入新的，一条 SQL。
+     *
+     * @param allowReuseGrace 客户端显式开启时，刚被轮换掉的旧 token 在 grace 窗口内仍可再换一次（上次换出的 token 随之作废）
+     */
+    @Transactional
+    public RotatedRefreshToken rotate(String plainToken,
+                                      String projectId,
+                                      boolean allowReuseGrace,
+                                      String userAgent,
+                                      String ip) {
+        return timer("rotate").record(() -> rotateInternal(plainToken, projectId, allowReuseGrace, userAgent, ip));
+    }
 
-        AuthRefreshToken rt = repo.findByTokenHash(hashed)
-                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+    private RotatedRefreshToken rotateInternal(String plainToken,
+                                               String projectId,
+                                               boolean allowReuseGrace,
+                                               String userAgent,
+                                               String ip) {
+        byte[] digest = digestToken(plainToken);
+        String newPlainToken = newPlainToken();
+        UUID successorId = UUID.randomUUID();
+        Object[] successor = {
+                successorId,
+                digestToken(newPlainToken),
+                Instant.now().plusSeconds(REFRESH_TOKEN_VALIDITY_SECONDS).atOffset(ZoneOffset.UTC),
+                userAgent,
+                ip
+        };
+
+        UUID userId = properties.isLegacyMd5Lookup()
+                ? insertSuccessor(ROTATE_WITH_LEGACY, successor, successorId, digest, legacyHashToken(plainToken), projectId)
+                : insertSuccessor(ROTATE, successor, successorId, digest, projectId);
+
+        if (userId == null && allowReuseGrace && !properties.getReuseGrace().isZero()) {
+            Instant graceStart = Instant.now().minus(properties.getReuseGrace());
+            userId = insertSuccessor(ROTATE_WITHIN_GRACE, successor,
+                    digest, projectId, graceStart.atOffset(ZoneOffset.UTC), successorId);
+            if (userId != null) {
+                log.info("Refresh token reused within grace window userId={} projectId={}", userId, projectId);
+            }
+        }
 
-        if (!rt.getProjectId().equals(projectId)) {
-            throw new InvalidRefreshTokenException("Refresh token belongs to a different project");
+        if (userId == null) {
+            if (isExpired(digest, plainToken, projectId)) {
+                throw new InvalidRefreshTokenException("Refresh token expired", true);
+            }
+            throw new InvalidRefreshTokenException("Refresh token invalid or revoked");
         }
 
-        if (rt.isRevoked() || rt.getExpiresAt().isBefore(Instant.now())) {
-            throw new InvalidRefreshTokenException("Refresh token expired or revoked");
+        return new RotatedRefreshToken(userId, projectId, newPlainToken);
+    }
+
+    // 只在轮换失败时查一次（走 token_digest 唯一索引），区分"过期"和"无效/已撤销"
+    private boolean isExpired(byte[] digest, String plainToken, String projectId) {
+        Integer expired = properties.isLegacyMd5Lookup()
+                ? jdbcTemplate.query(EXPIRED_WITH_LEGACY, rs -> rs.next() ? 1 : null,
+                        digest, legacyHashToken(plainToken), projectId)
+                : jdbcTemplate.query(EXPIRED, rs -> rs.next() ? 1 : null, digest, projectId);
+        return expired != null;
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("auth.refresh_token.duration")
+                .description("Refresh token issue / rotate time (DB included)")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private UUID insertSuccessor(String sql, Object[] successor, Object... match) {
+        Object[] args = new Object[match.length + successor.length];
+        System.arraycopy(match, 0, args, 0, match.length);
+        System.arraycopy(successor, 0, args, match.length, successor.length);
+        return jdbcTemplate.query(sql, rs -> rs.next() ? rs.getObject(1, UUID.class) : null, args);
+    }
+
+    static String newPlainToken() {
+        return UUID.randomUUID().toString() + UUID.randomUUID();
+    }
+
+    static byte[] digestToken(String plainToken) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(plainToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
+    }
 
-        // 🔥 核心：在这里把旧 token 标记为 revoked / consumed
-        rt.setRevoked(true);
-        rt.setRevokedAt(Instant.now());
-        repo.save(rt);
+    static String legacyHashToken(String plainToken) {
+        return DigestUtils.md5DigestAsHex(plainToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 批量撤销都走 set-based UPDATE（按用户走 idx_refresh_user），不再把整张表读进内存。
+    // 按用户撤销时顺带让成员关系缓存失效（提交后），之后的 login / refresh 会重新读账号状态和角色
 
-        return rt;
+    @Transactional
+    public int revokeAll(UUID userId) {
+        Instant now = Instant.now();
+        int revoked = repo.revokeAllByUserId(userId, now, graceStart(now));
+        log.info("Revoked {} refresh tokens for user={}", revoked, userId);
+        membershipCache.evictUser(userId);
+        return revoked;
     }
 
+    @Transactional
+    public int revokeAll(UUID userId, String projectId) {
+        Instant now = Instant.now();
+        int revoked = repo.revokeAllByUserIdAndProjectId(userId, projectId, now, graceStart(now));
+        log.info("Revoked {} refresh tokens for user={} projectId={}", revoked, userId, projectId);
+        membershipCache.evict(userId, projectId);
+        return revoked;
+    }
+
+    @Transactional
+    public int revokeAllForProject(String projectId) {
+        Instant now = Instant.now();
+        int revoked = repo.revokeAllByProjectId(projectId, now, graceStart(now));
+        log.info("Revoked {} refresh tokens for projectId={}", revoked, projectId);
+        return revoked;
+    }
 
-    public void revokeAll(UUID userId) {
-        repo.findAll().stream()
-                .filter(rt -> rt.getUserId().equals(userId))
-                .forEach(rt -> {
-                    rt.setRevoked(true);
-                    repo.save(rt);
-                });
+    private Instant graceStart(Instant now) {
+        return now.minus(properties.getReuseGrace());
     }
 }
@@ -0,0 +1,13 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.entity.AuthProject;
+
+/**
+ * ProjectRegistry 里缓存的项目（不可变，不是 JPA 实体）
+ */
+public record RegisteredProject(String id, String name, boolean active) {
+
+    static RegisteredProject of(AuthProject project) {
+        return new RegisteredProject(project.getId(), project.getName(), project.isActive());
+    }
+}
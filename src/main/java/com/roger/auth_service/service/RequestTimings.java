@@ -0,0 +1,128 @@
+package com.roger.auth_service.service;
+
+/**
+ * 单个请求的分阶段耗时，用于 Server-Timing 响应头和 debug 日志。
+ * <p>
+ * ServerTimingFilter 在请求开始时 {@link #bind} 到当前线程，JWT 校验 / SQL / 密码 hash / 签发各自把耗时累加进来；
+ * 没有 bind 的线程上 {@link #record} 只是一次 ThreadLocal 读取，不分配。
+ * 跨线程的部分（hash 线程池、之后的 continuation）由 PasswordHasher 显式带过去。
+ * 同一个请求的各阶段是先后执行的（线程切换经过 future 完成，有 happens-before），所以计数不加锁。
+ */
+public final class RequestTimings {
+
+    public enum Phase {
+        JWT("jwt"),
+        DB("db"),
+        HASH("hash"),
+        SIGN("sign");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startedAt = System.nanoTime();
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 绑定到当前线程（null = 解绑），返回之前绑定的值，用完后再 bind 回去
+     */
+    public static RequestTimings bind(RequestTimings timings) {
+        RequestTimings previous = CURRENT.get();
+        if (timings == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timings);
+        }
+        return previous;
+    }
+
+    /**
+     * 累加到当前线程绑定的请求；没有绑定时什么都不做
+     */
+    public static void record(Phase phase, long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(phase, elapsedNanos);
+        }
+    }
+
+    public void add(Phase phase, long elapsedNanos) {
+        nanos[phase.ordinal()] += elapsedNanos;
+        counts[phase.ordinal()]++;
+    }
+
+    public long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public int count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+
+    /**
+     * 例如 {@code jwt;dur=0.412, db;dur=3.105;desc="4", total;dur=12.900}，desc 是次数，没发生的阶段不输出
+     */
+    public String toHeaderValue() {
+        StringBuilder sb = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            sb.append(phase.metricName()).append(";dur=");
+            appendMillis(sb, nanos[phase.ordinal()]);
+            sb.append(";desc=\"").append(count).append("\", ");
+        }
+        sb.append("total;dur=");
+        appendMillis(sb, elapsedNanos());
+        return sb.toString();
+    }
+
+    /**
+     * key=value 形式，给日志用：{@code total_ms=12.900 jwt_ms=0.412 jwt_count=1 db_ms=3.105 db_count=4 ...}
+     */
+    public String toLogFields() {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append("total_ms=");
+        appendMillis(sb, elapsedNanos());
+        for (Phase phase : PHASES) {
+            sb.append(' ').append(phase.metricName()).append("_ms=");
+            appendMillis(sb, nanos[phase.ordinal()]);
+            sb.append(' ').append(phase.metricName()).append("_count=").append(counts[phase.ordinal()]);
+        }
+        return sb.toString();
+    }
+
+    // 毫秒，保留 3 位小数；不走 String.format
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        sb.append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
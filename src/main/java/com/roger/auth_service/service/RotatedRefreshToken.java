@@ -0,0 +1,9 @@
+package com.roger.auth_service.service;
+
+import java.util.UUID;
+
+/**
+ * 轮换结果：旧 token 的归属 + 新签发的明文 refresh token（只返回给客户端，不落库）
+ */
+public record RotatedRefreshToken(UUID userId, String projectId, String refreshToken) {
+}
@@ -0,0 +1,167 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.IntrospectionProperties;
+import com.roger.auth_service.dto.IntrospectionDTO;
+import com.roger.auth_service.exception.IntrospectionBatchTooLargeException;
+import com.roger.auth_service.repo.AuthUserProjectMembershipRepository;
+import com.roger.auth_service.repo.MembershipGrant;
+import com.roger.auth_service.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 给不能本地校验 JWT 的网关用的 token introspection（RFC 7662）。
+ * <p>
+ * 一次请求可以带一批 token：重复的 token 只算一次，先查 VerifiedTokenCache，
+ * 未命中的在专用线程池里并行做签名校验（队列满了就在调用线程上做）。
+ * 签名 + 过期通过后，先查撤销索引和 ProjectRegistry（项目不存在 / 已停用返回 active=false），
+ * 再按 (sub, project_id) 查 MembershipCache：成员关系被删除 / 账号被停用的 token 返回 active=false。
+ */
+@Slf4j
+@Service
+public class TokenIntrospector {
+
+    private static final String TOKEN_TYPE = "access_token";
+
+    private final JwtService jwtService;
+    private final MembershipCache membershipCache;
+    private final AccessTokenRevocationIndex revocationIndex;
+    private final ProjectRegistry projectRegistry;
+    private final AuthUserProjectMembershipRepository membershipRepository;
+    private final IntrospectionProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    public TokenIntrospector(JwtService jwtService,
+                             MembershipCache membershipCache,
+                             AccessTokenRevocationIndex revocationIndex,
+                             ProjectRegistry projectRegistry,
+                             AuthUserProjectMembershipRepository membershipRepository,
+                             IntrospectionProperties properties) {
+        this.jwtService = jwtService;
+        this.membershipCache = membershipCache;
+        this.revocationIndex = revocationIndex;
+        this.projectRegistry = projectRegistry;
+        this.membershipRepository = membershipRepository;
+        this.properties = properties;
+
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 64),
+                r -> {
+                    Thread t = new Thread(r, "token-introspect-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public IntrospectionDTO introspect(String token) {
+        return introspectAll(List.of(token)).get(0);
+    }
+
+    /**
+     * 结果顺序和入参一致
+     */
+    public List<IntrospectionDTO> introspectAll(List<String> tokens) {
+        if (tokens.size() > properties.getMaxBatchSize()) {
+            throw new IntrospectionBatchTooLargeException(tokens.size(), properties.getMaxBatchSize());
+        }
+
+        // 1. 去重 + 缓存命中直接出结果
+        Map<String, VerifiedToken> verified = new HashMap<>();
+        Map<String, CompletableFuture<VerifiedToken>> pending = new LinkedHashMap<>();
+        for (String token : tokens) {
+            if (token == null || token.isBlank() || verified.containsKey(token) || pending.containsKey(token)) {
+                continue;
+            }
+            VerifiedTokenCache.TokenKey key = jwtService.cacheKey(token);
+            VerifiedToken cached = jwtService.cached(key);
+            if (cached != null) {
+                verified.put(token, cached);
+            } else {
+                pending.put(token, CompletableFuture.supplyAsync(() -> verifyQuietly(token, key), executor));
+            }
+        }
+
+        // 2. 等并行校验结束
+        pending.forEach((token, future) -> verified.put(token, future.join()));
+
+        // 3. 成员关系 / 账号状态
+        Map<String, IntrospectionDTO> byToken = new HashMap<>();
+        List<IntrospectionDTO> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(byToken.computeIfAbsent(token == null ? "" : token,
+                    t -> toResult(verified.get(t))));
+        }
+        return results;
+    }
+
+    private VerifiedToken verifyQuietly(String token, VerifiedTokenCache.TokenKey key) {
+        try {
+            return jwtService.verify(token, key);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Introspected token is invalid: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private IntrospectionDTO toResult(VerifiedToken token) {
+        if (token == null || revocationIndex.isRevoked(token) || !isProjectActive(token)) {
+            return IntrospectionDTO.inactive();
+        }
+        if (properties.isCheckMembership() && !isMemberAndEnabled(token)) {
+            return IntrospectionDTO.inactive();
+        }
+
+        IntrospectionDTO dto = new IntrospectionDTO();
+        dto.setActive(true);
+        dto.setSub(token.userId().toString());
+        dto.setUsername(token.email());
+        dto.setProjectId(token.projectId());
+        dto.setRoles(token.roles());
+        dto.setIat(token.issuedAt() == null ? null : token.issuedAt().getEpochSecond());
+        dto.setExp(token.expiresAt() == null ? null : token.expiresAt().getEpochSecond());
+        dto.setTokenType(TOKEN_TYPE);
+        return dto;
+    }
+
+    // 内存查找；停用项目（ProjectService.update）之后它签发的 token 立即失效，不用等 exp
+    private boolean isProjectActive(VerifiedToken token) {
+        return projectRegistry.find(token.projectId())
+                .map(RegisteredProject::active)
+                .orElse(false);
+    }
+
+    private boolean isMemberAndEnabled(VerifiedToken token) {
+        if (token.projectId() == null) {
+            return false;
+        }
+        Optional<MembershipGrant> grant = membershipCache.get(token.userId(), token.projectId(),
+                () -> membershipRepository.findGrant(token.userId(), token.projectId()));
+        return grant.map(MembershipGrant::isUserEnabled).orElse(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
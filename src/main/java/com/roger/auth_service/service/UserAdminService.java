@@ -0,0 +1,54 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.entity.AuthUser;
+import com.roger.auth_service.exception.UserNotFoundException;
+import com.roger.auth_service.repo.AuthUserRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * 停用 / 删除账号。两者都会撤销该用户所有项目的 refresh token 和已签发的 access token，
+ * 并在提交后让所有节点的成员关系缓存失效，否则 refresh 在缓存 TTL 内还能给停用的账号签发 token。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserAdminService {
+
+    private final AuthUserRepository userRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final MembershipCache membershipCache;
+
+    @Transactional
+    public void disable(UUID userId) {
+        AuthUser user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        user.setActive(false);
+        userRepository.save(user);
+        log.info("Disabled user userId={}", userId);
+        cutOff(userId);
+    }
+
+    // 软删除：保留行（审计、邮箱占用），账号不可再用
+    @Transactional
+    public void delete(UUID userId) {
+        AuthUser user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        user.setActive(false);
+        user.setDeleted(true);
+        userRepository.save(user);
+        log.info("Deleted user userId={}", userId);
+        cutOff(userId);
+    }
+
+    private void cutOff(UUID userId) {
+        refreshTokenService.revokeAll(userId);
+        accessTokenRevocationService.revokeAllForUser(userId, null);
+        membershipCache.evictUser(userId);
+    }
+}
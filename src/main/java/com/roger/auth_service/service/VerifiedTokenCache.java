@@ -0,0 +1,75 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 已验证 access token 的进程内缓存，放在 JwtService 签名校验前面。
+ * <p>
+ * key 是整个 compact token 的 SHA-256 前 128 bit（不是 signature 段：
+ * 只用签名做 key 的话，拼一个假 payload + 真签名就能命中缓存）。
+ * value 是解析好的 claims，按容量和 token 自己的 exp 淘汰。
+ * <p>
+ * 这里只缓存"签名 + 过期"的校验结果，撤销、成员关系都不缓存，由调用方在命中后再检查，
+ * 所以撤销时不需要清这里。
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final InstancePool<MessageDigest> SHA256 = new InstancePool<>(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final boolean enabled;
+    private final ExpiringCache<TokenKey, VerifiedToken> entries;
+
+    public VerifiedTokenCache(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.enabled = jwtProperties.getCache().isEnabled();
+        this.entries = new ExpiringCache<>(jwtProperties.getCache().getMaxSize(),
+                "auth.jwt.cache", "Verified access token cache", meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TokenKey keyOf(String token) {
+        MessageDigest digest = SHA256.borrow();
+        byte[] hash;
+        try {
+            hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            SHA256.release(digest);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(hash);
+        return new TokenKey(buf.getLong(), buf.getLong());
+    }
+
+    /**
+     * 命中且未过期返回 claims，否则返回 null
+     */
+    public VerifiedToken get(TokenKey key) {
+        return entries.get(key);
+    }
+
+    public void put(TokenKey key, VerifiedToken token) {
+        if (token.expiresAt() == null) {
+            return; // 没有 exp 的 token 不缓存
+        }
+        entries.put(key, token, token.expiresAt().toEpochMilli());
+    }
+
+    public record TokenKey(long high, long low) {
+    }
+}
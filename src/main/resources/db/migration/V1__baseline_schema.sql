@@ -0,0 +1,71 @@
+-- 基线：引入 Flyway 之前 ddl-auto: update 建出来的表结构（已经上线的库就是这个样子）
+-- 已有库第一次启动时 baseline-on-migrate 把它记为 V1，不会执行这里的语句，从 V2 开始补齐后续改动；
+-- 新库从这里开始按顺序执行，两边最终结构一致
+
+create table auth_project (
+    id varchar(64) not null,
+    name varchar(255) not null,
+    description varchar(255),
+    active boolean not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+create table auth_user (
+    id uuid not null,
+    email varchar(320) not null,
+    email_verified boolean not null,
+    password_hash varchar(255) not null,
+    active boolean not null,
+    locked boolean not null,
+    deleted boolean not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    last_login_at timestamp(6) with time zone,
+    primary key (id),
+    constraint uk_auth_user_email unique (email)
+);
+
+create index idx_auth_user_email on auth_user (email);
+create index idx_auth_user_active on auth_user (active);
+
+create table auth_user_project_membership (
+    id uuid not null,
+    user_id uuid not null,
+    project_id varchar(64) not null,
+    role varchar(32) not null check (role in ('OWNER', 'ADMIN', 'USER')),
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint uk_user_project unique (user_id, project_id)
+);
+
+-- 外键名沿用 Hibernate 生成的名字，和 ddl-auto 建出来的老库一致
+alter table if exists auth_user_project_membership
+    add constraint FKgubo2m7o5uo7pbbg6r1eoql12
+    foreign key (project_id)
+    references auth_project;
+
+alter table if exists auth_user_project_membership
+    add constraint FKmygnkwrldbkfu8einprkoi03j
+    foreign key (user_id)
+    references auth_user;
+
+-- token_hash 是 MD5(refresh token)
+create table auth_refresh_token (
+    id uuid not null,
+    user_id uuid not null,
+    project_id varchar(64) not null,
+    token_hash varchar(255) not null,
+    expires_at timestamp(6) with time zone not null,
+    revoked boolean not null,
+    revoked_at timestamp(6) with time zone,
+    created_at timestamp(6) with time zone not null,
+    user_agent varchar(255),
+    ip_address varchar(255),
+    primary key (id)
+);
+
+create index idx_refresh_user on auth_refresh_token (user_id);
+create index idx_refresh_expires on auth_refresh_token (expires_at);
@@ -0,0 +1,5 @@
+-- refresh token 按 SHA-256 digest 唯一查找；旧的 MD5 token_hash 只在迁移期用来兼容老 token，新 token 不再写
+-- 用 if not exists：跑过中间版本（ddl-auto: update）的库上已经有这些对象
+alter table auth_refresh_token add column if not exists token_digest bytea;
+create unique index if not exists uk_refresh_token_digest on auth_refresh_token (token_digest);
+alter table auth_refresh_token alter column token_hash drop not null;
@@ -0,0 +1,8 @@
+-- 清理任务按 revoked_at 分批删除已撤销的 token
+create index if not exists idx_refresh_revoked_at on auth_refresh_token (revoked_at);
+
+-- 轮换时间：rotated_at 之后 reuse-grace 内重放旧 token 不算盗用
+alter table auth_refresh_token add column if not exists rotated_at timestamp(6) with time zone;
+
+-- 轮换时接替它的新 token：grace 内重放只能一次，并且作废上一次换出的 token
+alter table auth_refresh_token add column if not exists replaced_by uuid;
@@ -0,0 +1,18 @@
+-- access token 撤销记录：jti 不为空撤销单个 token，否则撤销 user_id 在 revoked_before 之前签发的 token；
+-- project_id 不为空时只对这个项目的 token 生效，为空对所有项目生效
+create table if not exists auth_access_token_revocation (
+    id bigint generated by default as identity,
+    jti uuid,
+    user_id uuid,
+    revoked_before timestamp(6) with time zone,
+    project_id varchar(64),
+    expires_at timestamp(6) with time zone not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+-- 中间版本（ddl-auto: update）建的表没有 project_id
+alter table auth_access_token_revocation add column if not exists project_id varchar(64);
+
+create index if not exists idx_at_revocation_created on auth_access_token_revocation (created_at);
+create index if not exists idx_at_revocation_expires on auth_access_token_revocation (expires_at);
@@ -0,0 +1,31 @@
+-- 在线建索引：CONCURRENTLY 不锁写，不能放在事务里，Flyway 会把整个脚本放在事务外执行，
+-- 所以这里只放 CONCURRENTLY 语句。
+-- 建到一半失败会留下 INVALID 索引，IF NOT EXISTS 会跳过它：先 DROP INDEX CONCURRENTLY 再重跑。
+
+-- 批量撤销（按项目、按用户 + 项目）只关心还能用的 token：
+-- AuthRefreshTokenRepository.revokeAllBy* 的 WHERE 是 revoked = false or rotated_at > :graceStart，
+-- 它蕴含下面的索引条件（部分索引的条件里不能用 now()），planner 能用上这个索引。
+-- 已撤销的行只在 reuse grace 窗口内、到下一次 RefreshTokenReaper 清掉 rotated_at 之前留在索引里，
+-- 其余（大部分）不进索引
+create index concurrently if not exists idx_refresh_active_project_user
+    on auth_refresh_token (project_id, user_id)
+    where revoked = false or rotated_at is not null;
+
+-- RefreshTokenReaper 找 grace 窗口已过、rotated_at 还没清的行；只有这些行进索引
+create index concurrently if not exists idx_refresh_rotated_at
+    on auth_refresh_token (rotated_at)
+    where rotated_at is not null;
+
+-- 迁移期的 MD5 token_hash 只有老数据有值：换成部分索引，新 token 不再维护这棵树
+create index concurrently if not exists idx_refresh_legacy_hash_present
+    on auth_refresh_token (token_hash)
+    where token_hash is not null;
+
+drop index concurrently if exists idx_refresh_legacy_hash;
+
+-- 按项目找成员（删除 / 停用项目、外键检查）；(user_id, project_id) 已经由 uk_user_project 覆盖
+create index concurrently if not exists idx_membership_project
+    on auth_user_project_membership (project_id);
+
+-- 和 uk_auth_user_email 的唯一索引完全重复，只增加写入成本
+drop index concurrently if exists idx_auth_user_email;
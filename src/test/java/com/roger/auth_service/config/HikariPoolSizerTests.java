@@ -0,0 +1,48 @@
+package com.roger.auth_service.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HikariPoolSizerTests {
+
+    @Test
+    void cpuBoundWhenDatabaseHasRoom() {
+        DataSourcePoolProperties pool = pool(100, 10, 1);
+
+        // 4 * 2 + 1
+        assertThat(HikariPoolSizer.poolSize(pool, 4)).isEqualTo(9);
+    }
+
+    @Test
+    void databaseBoundSplitsConnectionsAcrossInstances() {
+        DataSourcePoolProperties pool = pool(100, 10, 3);
+
+        // (100 - 10) / 3 = 30 < 32 * 2 + 1
+        assertThat(HikariPoolSizer.poolSize(pool, 32)).isEqualTo(30);
+    }
+
+    @Test
+    void neverBelowTwo() {
+        DataSourcePoolProperties pool = pool(10, 10, 5);
+
+        assertThat(HikariPoolSizer.poolSize(pool, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void nonPositiveSettingsAreClamped() {
+        DataSourcePoolProperties pool = pool(100, 0, 0);
+        pool.setConnectionsPerCore(0);
+
+        // connectionsPerCore 按 1、instances 按 1 算：min(8 + 1, 100)
+        assertThat(HikariPoolSizer.poolSize(pool, 8)).isEqualTo(9);
+    }
+
+    private static DataSourcePoolProperties pool(int databaseMaxConnections, int reserved, int instances) {
+        DataSourcePoolProperties pool = new DataSourcePoolProperties();
+        pool.setDatabaseMaxConnections(databaseMaxConnections);
+        pool.setReservedConnections(reserved);
+        pool.setInstances(instances);
+        return pool;
+    }
+}
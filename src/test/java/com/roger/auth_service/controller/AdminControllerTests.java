@@ -0,0 +1,227 @@
+package com.roger.auth_service.controller;
+
+import com.roger.auth_service.dto.UpdateProjectRequestDTO;
+import com.roger.auth_service.entity.ProjectRole;
+import com.roger.auth_service.service.AccessTokenRevocationService;
+import com.roger.auth_service.service.JwtService;
+import com.roger.auth_service.service.MembershipService;
+import com.roger.auth_service.service.ProjectService;
+import com.roger.auth_service.service.RefreshTokenService;
+import com.roger.auth_service.service.UserAdminService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "auth.admin.platform-project-id=platform")
+class AdminControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockitoBean
+    private MembershipService membershipService;
+
+    @MockitoBean
+    private AccessTokenRevocationService accessTokenRevocationService;
+
+    @MockitoBean
+    private ProjectService projectService;
+
+    @MockitoBean
+    private UserAdminService userAdminService;
+
+    private final UUID target = UUID.randomUUID();
+
+    @Test
+    void projectAdminCannotRevokeAnotherProjectsRefreshTokens() throws Exception {
+        mockMvc.perform(post("/v1/admin/projects/p2/refresh-tokens/revoke")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void projectAdminRevokesOwnProjectsRefreshTokens() throws Exception {
+        mockMvc.perform(post("/v1/admin/projects/p1/refresh-tokens/revoke")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "ADMIN")))
+                .andExpect(status().isOk());
+
+        verify(refreshTokenService).revokeAllForProject("p1");
+    }
+
+    @Test
+    void plainMemberCannotRevokeOwnProjectsRefreshTokens() throws Exception {
+        mockMvc.perform(post("/v1/admin/projects/p1/refresh-tokens/revoke")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "USER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void userRefreshRevokeIsLimitedToCallersProject() throws Exception {
+        mockMvc.perform(post("/v1/admin/users/{userId}/refresh-tokens/revoke", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isOk());
+
+        verify(refreshTokenService).revokeAll(target, "p1");
+    }
+
+    @Test
+    void userRefreshRevokeForAnotherProjectIsForbidden() throws Exception {
+        mockMvc.perform(post("/v1/admin/users/{userId}/refresh-tokens/revoke", target)
+                        .param("projectId", "p2")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void platformAdminRevokesAcrossProjects() throws Exception {
+        mockMvc.perform(post("/v1/admin/users/{userId}/refresh-tokens/revoke", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("platform", "ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/admin/projects/p2/refresh-tokens/revoke")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("platform", "OWNER")))
+                .andExpect(status().isOk());
+
+        verify(refreshTokenService).revokeAll(target);
+        verify(refreshTokenService).revokeAllForProject("p2");
+    }
+
+    @Test
+    void registryReloadRequiresPlatformAdmin() throws Exception {
+        mockMvc.perform(post("/v1/admin/projects/registry/reload")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/v1/admin/projects/registry/reload")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("platform", "OWNER")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void projectUpdateRequiresPlatformAdmin() throws Exception {
+        mockMvc.perform(put("/v1/admin/projects/p1")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"active\":false}"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(projectService);
+
+        mockMvc.perform(put("/v1/admin/projects/p1")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("platform", "OWNER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"active\":false}"))
+                .andExpect(status().isOk());
+        verify(projectService).update(eq("p1"), any(UpdateProjectRequestDTO.class));
+    }
+
+    @Test
+    void disablingOrDeletingUsersRequiresPlatformAdmin() throws Exception {
+        mockMvc.perform(post("/v1/admin/users/{userId}/disable", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/v1/admin/users/{userId}", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(userAdminService);
+
+        mockMvc.perform(post("/v1/admin/users/{userId}/disable", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("platform", "OWNER")))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/v1/admin/users/{userId}", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("platform", "OWNER")))
+                .andExpect(status().isOk());
+        verify(userAdminService).disable(target);
+        verify(userAdminService).delete(target);
+    }
+
+    @Test
+    void accessTokenRevokesAreLimitedToCallersProject() throws Exception {
+        UUID jti = UUID.randomUUID();
+
+        mockMvc.perform(post("/v1/admin/access-tokens/{jti}/revoke", jti)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/admin/users/{userId}/access-tokens/revoke", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "ADMIN")))
+                .andExpect(status().isOk());
+
+        verify(accessTokenRevocationService).revokeToken(jti, "p1");
+        verify(accessTokenRevocationService).revokeAllForUser(target, "p1");
+    }
+
+    @Test
+    void accessTokenRevokeForAnotherProjectIsForbidden() throws Exception {
+        mockMvc.perform(post("/v1/admin/access-tokens/{jti}/revoke", UUID.randomUUID())
+                        .param("projectId", "p2")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/v1/admin/users/{userId}/access-tokens/revoke", target)
+                        .param("projectId", "p2")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(accessTokenRevocationService);
+    }
+
+    @Test
+    void roleChangeInAnotherProjectIsForbidden() throws Exception {
+        mockMvc.perform(put("/v1/admin/projects/p2/members/{userId}/role", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer("p1", "OWNER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(membershipService);
+    }
+
+    @Test
+    void roleChangePassesCallerAndCallerRole() throws Exception {
+        UUID caller = UUID.randomUUID();
+
+        mockMvc.perform(put("/v1/admin/projects/p1/members/{userId}/role", target)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(caller, "p1", "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"USER\"}"))
+                .andExpect(status().isOk());
+
+        verify(membershipService).changeRole(caller, ProjectRole.ADMIN, target, "p1", ProjectRole.USER);
+    }
+
+    private String bearer(String projectId, String role) {
+        return bearer(UUID.randomUUID(), projectId, role);
+    }
+
+    private String bearer(UUID userId, String projectId, String role) {
+        return "Bearer " + jwtService.generateAccessToken(userId, "admin@example.com", projectId, List.of(role));
+    }
+}
@@ -0,0 +1,132 @@
+package com.roger.auth_service.controller;
+
+import com.roger.auth_service.dto.AuthTokensDTO;
+import com.roger.auth_service.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "auth.rate-limit.login.per-ip.capacity=2",
+        "auth.rate-limit.login.per-ip.period=PT1H",
+        "auth.client-ip.trusted-proxies=10.0.0.0/8",
+        "auth.introspection.clients.api-gateway={noop}gateway-secret"
+})
+class AuthControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    void ipDimensionRejectsAcrossEmailsAndIgnoresClientIpParameter() throws Exception {
+        when(authService.login(anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new AuthTokensDTO("a", "r")));
+
+        mockMvc.perform(login("198.51.100.10", "a@example.com")).andExpect(request().asyncStarted());
+        mockMvc.perform(login("198.51.100.10", "b@example.com")).andExpect(request().asyncStarted());
+        // 换 email、自己带 clientIp 参数都绕不过 IP 维度
+        mockMvc.perform(login("198.51.100.10", "c@example.com").param("clientIp", "192.0.2.1"))
+                .andExpect(status().isTooManyRequests());
+
+        verify(authService, times(2)).login(anyString(), anyString(), anyString(), any(), eq("198.51.100.10"));
+    }
+
+    @Test
+    void forwardedForIsOnlyHonouredFromTrustedProxies() throws Exception {
+        when(authService.login(anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new AuthTokensDTO("a", "r")));
+
+        mockMvc.perform(login("10.0.0.5", "d@example.com").header("X-Forwarded-For", "203.0.113.20"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(login("198.51.100.30", "e@example.com").header("X-Forwarded-For", "203.0.113.21"))
+                .andExpect(request().asyncStarted());
+
+        verify(authService).login(eq("d@example.com"), anyString(), anyString(), any(), eq("203.0.113.20"));
+        verify(authService).login(eq("e@example.com"), anyString(), anyString(), any(), eq("198.51.100.30"));
+    }
+
+    @Test
+    void exhaustedConnectionPoolIsServiceUnavailable() throws Exception {
+        when(authService.login(anyString(), anyString(), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new CannotCreateTransactionException("Could not open JPA EntityManager for transaction")));
+
+        MvcResult result = mockMvc.perform(login("198.51.100.40", "f@example.com"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.code").value("SERVICE_UNAVAILABLE"));
+    }
+
+    @Test
+    void introspectionRequiresGatewayClientCredentials() throws Exception {
+        mockMvc.perform(introspect("not-a-token"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(introspect("not-a-token").with(httpBasic("api-gateway", "wrong-secret")))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(introspect("not-a-token").with(httpBasic("api-gateway", "gateway-secret")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false));
+    }
+
+    @Test
+    void introspectionBatchReturnsRawRfcResponses() throws Exception {
+        mockMvc.perform(post("/v1/auth/introspect")
+                        .with(httpBasic("api-gateway", "gateway-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"a\",\"b\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].active").value(false))
+                .andExpect(jsonPath("$[1].active").value(false));
+    }
+
+    private static MockHttpServletRequestBuilder introspect(String token) {
+        return post("/v1/auth/introspect")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .param("token", token);
+    }
+
+    private static MockHttpServletRequestBuilder login(String remoteAddr, String email) {
+        return post("/v1/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"secret-pass\",\"projectId\":\"p1\"}");
+    }
+}
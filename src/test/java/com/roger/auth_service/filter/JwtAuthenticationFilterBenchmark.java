@@ -0,0 +1,75 @@
+package com.roger.auth_service.filter;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.config.AdminProperties;
+import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.security.AdminAccess;
+import com.roger.auth_service.service.AccessTokenRevocationIndex;
+import com.roger.auth_service.service.JwtKeyRing;
+import com.roger.auth_service.service.JwtService;
+import com.roger.auth_service.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter 端到端（stateless 模式，mock request）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        JwtProperties props = new JwtProperties();
+        props.setSecret("asdafsfgagalfkjalkghasdkjlfhajskdfhlaskjdhfa");
+        props.setAccessTokenValiditySeconds(3600);
+        props.setStatelessPrincipal(true);
+        props.getCache().setEnabled(cacheEnabled);
+
+        JwtKeyRing keyRing = new JwtKeyRing(props);
+        keyRing.init();
+        JwtService jwtService = new JwtService(props, new VerifiedTokenCache(props, new SimpleMeterRegistry()), keyRing, new SimpleMeterRegistry());
+        jwtService.init();
+
+        // stateless 模式不会用到 AuthService
+        AccessTokenRevocationIndex revocationIndex = new AccessTokenRevocationIndex(
+                new AccessTokenRevocationProperties(), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtService, null, props, revocationIndex,
+                new AdminAccess(new AdminProperties()));
+        authorization = "Bearer " + jwtService.generateAccessToken(
+                UUID.randomUUID(), "user@example.com", "proj_ai_video", List.of("USER"));
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/auth/me");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.roger.auth_service.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 简单的 HTTP 压测驱动：对比平台线程 / 虚拟线程模式下高并发的吞吐和延迟。
+ * <p>
+ * 先启动服务（两次分别用默认配置和 --spring.profiles.active=vthreads），再跑。
+ * 服务端要带 --auth.rate-limit.enabled=false 启动：所有请求都来自同一个 IP，
+ * 默认的 per-ip 限流（register 10 次/分钟、login 30 次/分钟）会让预注册和压测本身直接 429。
+ * 收到 429 时驱动立即退出并提示这一点，不会把被限流的请求算进结果。
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.roger.auth_service.load.AuthLoadDriver \
+ *     -Dexec.args="--scenario=login --concurrency=1000 --duration=PT30S"
+ * </pre>
+ * 参数：
+ * <ul>
+ *   <li>--base-url：默认 http://localhost:9000/api</li>
+ *   <li>--project：已存在且 active 的 projectId，默认 default</li>
+ *   <li>--scenario：login / refresh / me / register，默认 login（register 每次注册一个新用户，测写入路径）</li>
+ *   <li>--concurrency：并发连接数（每个一个 worker），默认 500</li>
+ *   <li>--users：预先注册的用户数，默认 100</li>
+ *   <li>--duration：压测时长（ISO-8601），默认 PT30S</li>
+ * </ul>
+ * 输出吞吐、p50 / p90 / p99 / max 延迟以及按状态码统计的结果数。
+ * 对比持久层调优时，分别不带 / 带 --spring.profiles.active=prod 启动服务，用 register / refresh 场景各跑一次。
+ * 不是 JUnit 测试，不会在 mvn test 里跑。
+ */
+public final class AuthLoadDriver {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String PASSWORD = "load-test-password";
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String projectId;
+
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicReference<String> rateLimited = new AtomicReference<>();
+
+    private AuthLoadDriver(String baseUrl, String projectId) {
+        this.baseUrl = baseUrl;
+        this.projectId = projectId;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String baseUrl = opts.getOrDefault("base-url", "http://localhost:9000/api");
+        String projectId = opts.getOrDefault("project", "default");
+        String scenario = opts.getOrDefault("scenario", "login");
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "500"));
+        int users = Integer.parseInt(opts.getOrDefault("users", "100"));
+        Duration duration = Duration.parse(opts.getOrDefault("duration", "PT30S"));
+
+        new AuthLoadDriver(baseUrl, projectId).run(scenario, concurrency, users, duration);
+    }
+
+    private void run(String scenario, int concurrency, int users, Duration duration) throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        List<String> emails = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String email = "load-" + runId + "-" + i + "@example.com";
+            HttpResponse<String> response = post("/v1/auth/register", credentials(email), null);
+            if (response.statusCode() == TOO_MANY_REQUESTS) {
+                throw rateLimitedError("/v1/auth/register");
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("register failed: " + response.statusCode() + " " + response.body());
+            }
+            emails.add(email);
+        }
+        System.out.printf("registered %d users, scenario=%s concurrency=%d duration=%s%n",
+                users, scenario, concurrency, duration);
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long[][] latencies = new long[concurrency][];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            int worker = w;
+            String email = emails.get(w % emails.size());
+            workers.execute(() -> {
+                try {
+                    latencies[worker] = loop(scenario, email, deadline);
+                } catch (Exception e) {
+                    latencies[worker] = new long[0];
+                    errors.increment();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        workers.shutdown();
+        if (rateLimited.get() != null) {
+            throw rateLimitedError(rateLimited.get());
+        }
+
+        report(latencies, elapsed);
+    }
+
+    private long[] loop(String scenario, String email, long deadline) throws Exception {
+        Samples samples = new Samples();
+
+        // 先登录一次拿到 access / refresh token
+        HttpResponse<String> login = post("/v1/auth/login", credentials(email), null);
+        if (login.statusCode() == TOO_MANY_REQUESTS) {
+            rateLimited.compareAndSet(null, "/v1/auth/login");
+            return new long[0];
+        }
+        JsonNode tokens = JSON.readTree(login.body()).path("data");
+        String accessToken = tokens.path("accessToken").asText();
+        String refreshToken = tokens.path("refreshToken").asText();
+
+        int registered = 0;
+        while (System.nanoTime() < deadline && rateLimited.get() == null) {
+            long t0 = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                switch (scenario) {
+                    case "login" -> response = post("/v1/auth/login", credentials(email), null);
+                    case "register" -> response = post("/v1/auth/register",
+                            credentials(registered++ + "-" + email), null);
+                    case "refresh" -> {
+                        response = post("/v1/auth/refresh",
+                                "{\"projectId\":\"" + projectId + "\"}",
+                                "refresh_token=" + refreshToken);
+                        String rotated = cookie(response, "refresh_token");
+                        if (rotated != null) {
+                            refreshToken = rotated;
+                        }
+                    }
+                    case "me" -> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/v1/auth/me"))
+                            .header("Authorization", "Bearer " + accessToken)
+                            .GET()
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                    default -> throw new IllegalArgumentException("unknown scenario: " + scenario);
+                }
+            } catch (java.io.IOException e) {
+                errors.increment();
+                continue;
+            }
+            if (response.statusCode() == TOO_MANY_REQUESTS) {
+                rateLimited.compareAndSet(null, response.request().uri().getPath());
+                break;
+            }
+            samples.add(System.nanoTime() - t0);
+            statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+        }
+        return samples.toArray();
+    }
+
+    /**
+     * 被限流的结果没有意义（测的是 429 的速度），直接退出
+     */
+    private static IllegalStateException rateLimitedError(String path) {
+        return new IllegalStateException("got 429 from " + path
+                + ": restart the server with --auth.rate-limit.enabled=false before running the load driver");
+    }
+
+    private HttpResponse<String> post(String path, String body, String cookie) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String credentials(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\",\"projectId\":\"" + projectId + "\"}";
+    }
+
+    private static String cookie(HttpResponse<?> response, String name) {
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            if (header.startsWith(name + "=")) {
+                int end = header.indexOf(';');
+                return header.substring(name.length() + 1, end < 0 ? header.length() : end);
+            }
+        }
+        return null;
+    }
+
+    private void report(long[][] perWorker, long elapsedNanos) {
+        long[] all = Arrays.stream(perWorker).flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("requests=%d elapsed=%.1fs throughput=%.1f req/s%n", all.length, seconds, all.length / seconds);
+        if (all.length > 0) {
+            System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), all[all.length - 1] / 1e6);
+        }
+        Map<Integer, Long> byStatus = new TreeMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        System.out.println("status=" + byStatus + " ioErrors=" + errors.sum());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new TreeMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return opts;
+    }
+
+    /**
+     * 每个 worker 自己的延迟样本，避免共享结构上的竞争
+     */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
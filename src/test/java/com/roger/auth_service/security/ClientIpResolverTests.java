@@ -0,0 +1,58 @@
+package com.roger.auth_service.security;
+
+import com.roger.auth_service.config.ClientIpProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTests {
+
+    @Test
+    void ignoresForwardedHeaderWithoutTrustedProxies() {
+        ClientIpResolver resolver = resolver();
+
+        assertThat(resolver.resolve(request("203.0.113.7", "198.51.100.1"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void ignoresForwardedHeaderFromUntrustedPeer() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("203.0.113.7", "198.51.100.1"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void takesRightmostUntrustedHopBehindTrustedProxies() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8");
+
+        // 最左边是客户端自己写的（伪造），10.x 是代理链
+        assertThat(resolver.resolve(request("10.0.0.2", "1.1.1.1, 198.51.100.1, 10.0.0.9")))
+                .isEqualTo("198.51.100.1");
+    }
+
+    @Test
+    void fallsBackToPeerWhenHeaderIsMissingOrMalformed() {
+        ClientIpResolver resolver = resolver("10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("10.0.0.2", null))).isEqualTo("10.0.0.2");
+        assertThat(resolver.resolve(request("10.0.0.2", "evil.example.com"))).isEqualTo("10.0.0.2");
+    }
+
+    private static ClientIpResolver resolver(String... trusted) {
+        ClientIpProperties properties = new ClientIpProperties();
+        properties.setTrustedProxies(List.of(trusted));
+        return new ClientIpResolver(properties);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.roger.auth_service.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccessTokenEncoder vs 原来的 Jwts.builder() 签发路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessTokenEncoderBenchmark {
+
+    private SecretKey key;
+    private AccessTokenEncoder encoder;
+    private UUID userId;
+    private List<String> roles;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor("asdafsfgagalfkjalkghasdkjlfhajskdfhlaskjdhfa".getBytes(StandardCharsets.UTF_8));
+        encoder = new AccessTokenEncoder(key);
+        userId = UUID.randomUUID();
+        roles = List.of("USER");
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setSubject(userId.toString())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plusSeconds(3600)))
+                .claim("email", "user@example.com")
+                .claim("project_id", "proj_ai_video")
+                .claim("roles", roles)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String accessTokenEncoder() {
+        long now = System.currentTimeMillis() / 1000;
+        return encoder.encode(userId, "user@example.com", "proj_ai_video", roles, now, now + 3600);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccessTokenEncoderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.roger.auth_service.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessTokenEncoderTests {
+
+    private final SecretKey key = Keys.hmacShaKeyFor(
+            "asdafsfgagalfkjalkghasdkjlfhajskdfhlaskjdhfa".getBytes(StandardCharsets.UTF_8));
+    private final AccessTokenEncoder encoder = new AccessTokenEncoder(key);
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    @Test
+    void encodedTokenIsVerifiableByJjwt() {
+        UUID userId = UUID.randomUUID();
+        long now = System.currentTimeMillis() / 1000;
+
+        String token = encoder.encode(userId, "user@example.com", "proj_ai_video",
+                List.of("USER", "ADMIN"), now, now + 3600);
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        assertThat(claims.getSubject()).isEqualTo(userId.toString());
+        assertThat(claims.get("email", String.class)).isEqualTo("user@example.com");
+        assertThat(claims.get("project_id", String.class)).isEqualTo("proj_ai_video");
+        assertThat(claims.get("roles")).isEqualTo(List.of("USER", "ADMIN"));
+        assertThat(claims.getIssuedAt().getTime() / 1000).isEqualTo(now);
+        assertThat(claims.getExpiration().getTime() / 1000).isEqualTo(now + 3600);
+    }
+
+    @Test
+    void escapesAndUtf8EncodesStrings() {
+        long now = System.currentTimeMillis() / 1000;
+        String email = "\"quoted\"\\用户😀\n@example.com";
+
+        String token = encoder.encode(UUID.randomUUID(), email, null, List.of(), now, now + 60);
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        assertThat(claims.get("email", String.class)).isEqualTo(email);
+        assertThat(claims.containsKey("project_id")).isFalse();
+        assertThat(claims.get("roles")).isEqualTo(List.of());
+    }
+
+    @Test
+    void asymmetricTokensCarryKidAndVerifyWithPublicKey() {
+        long now = System.currentTimeMillis() / 1000;
+        UUID userId = UUID.randomUUID();
+
+        for (SignatureAlgorithm algorithm : List.of(SignatureAlgorithm.ES256, SignatureAlgorithm.RS256)) {
+            KeyPair pair = Keys.keyPairFor(algorithm);
+            AccessTokenEncoder asymmetric = new AccessTokenEncoder("k1", algorithm, pair.getPrivate());
+
+            String token = asymmetric.encode(userId, "user@example.com", "p1", List.of("USER"), now, now + 60);
+
+            Jws<Claims> jws = Jwts.parserBuilder().setSigningKey(pair.getPublic()).build().parseClaimsJws(token);
+            assertThat(jws.getHeader().getKeyId()).isEqualTo("k1");
+            assertThat(jws.getHeader().getAlgorithm()).isEqualTo(algorithm.getValue());
+            assertThat(jws.getBody().getSubject()).isEqualTo(userId.toString());
+        }
+    }
+}
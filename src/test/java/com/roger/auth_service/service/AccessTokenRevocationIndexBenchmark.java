@@ -0,0 +1,69 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求都要做的撤销检查：应该在几十纳秒量级且不分配对象（用 -prof gc 看 gc.alloc.rate.norm）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessTokenRevocationIndexBenchmark {
+
+    @Param({"0", "100000"})
+    public int revokedJtis;
+
+    private AccessTokenRevocationIndex index;
+    private VerifiedToken live;
+    private VerifiedToken revoked;
+
+    @Setup
+    public void setup() {
+        index = new AccessTokenRevocationIndex(new AccessTokenRevocationProperties(), new SimpleMeterRegistry());
+        long exp = Instant.now().plusSeconds(3600).getEpochSecond();
+        UUID last = null;
+        for (int i = 0; i < revokedJtis; i++) {
+            last = UUID.randomUUID();
+            index.revokeJti(last, "p1", exp);
+        }
+        // 一个用户级撤销，走 revokedUsers 非空的路径
+        index.revokeUser(UUID.randomUUID(), "p1", Instant.now().getEpochSecond(), exp);
+
+        Instant now = Instant.now();
+        live = new VerifiedToken(UUID.randomUUID(), UUID.randomUUID(), "user@example.com", "p1",
+                List.of("USER"), now, now.plusSeconds(3600));
+        revoked = last == null ? live : new VerifiedToken(UUID.randomUUID(), last, "user@example.com", "p1",
+                List.of("USER"), now, now.plusSeconds(3600));
+    }
+
+    @Benchmark
+    public boolean liveToken() {
+        return index.isRevoked(live);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return index.isRevoked(revoked);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AccessTokenRevocationIndexBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
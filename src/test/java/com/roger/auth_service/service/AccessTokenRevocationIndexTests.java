@@ -0,0 +1,142 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static com.roger.auth_service.service.AccessTokenRevocationIndex.ALL_PROJECTS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessTokenRevocationIndexTests {
+
+    private final AccessTokenRevocationIndex index =
+            new AccessTokenRevocationIndex(new AccessTokenRevocationProperties(), new SimpleMeterRegistry());
+
+    private final long now = Instant.now().getEpochSecond();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void revokedJtiIsRejectedAndOthersPass() {
+        UUID jti = UUID.randomUUID();
+
+        index.revokeJti(jti, "p1", now + 3600);
+
+        assertThat(index.isRevoked(token(jti, "p1", now))).isTrue();
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now))).isFalse();
+    }
+
+    @Test
+    void userRevocationRejectsTokensIssuedUpToRevokedBefore() {
+        index.revokeUser(userId, "p1", now, now + 3600);
+
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now - 60))).isTrue();
+        // iat 只有秒精度：同一秒签发的也算撤销
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now))).isTrue();
+        // 撤销之后重新登录拿到的 token 不受影响
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now + 1))).isFalse();
+    }
+
+    @Test
+    void laterUserRevocationMovesRevokedBeforeForward() {
+        index.revokeUser(userId, "p1", now + 100, now + 3700);
+        // 同步拉到更早的一条（overlap 重放）不会把时间往回拨
+        index.revokeUser(userId, "p1", now, now + 3600);
+
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now + 50))).isTrue();
+    }
+
+    @Test
+    void sweepDropsOnlyExpiredEntries() {
+        UUID expired = UUID.randomUUID();
+        UUID live = UUID.randomUUID();
+        UUID expiredUser = UUID.randomUUID();
+
+        index.revokeJti(expired, "p1", now - 1);
+        index.revokeJti(live, "p1", now + 3600);
+        index.revokeUser(expiredUser, "p1", now - 7200, now - 1);
+        index.revokeUser(userId, "p1", now, now + 3600);
+
+        index.sweep(now);
+
+        // iat 晚于 userId 的 revoked-before，只看 jti
+        assertThat(index.isRevoked(token(expired, "p1", now + 1))).isFalse();
+        assertThat(index.isRevoked(token(live, "p1", now + 1))).isTrue();
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now - 10))).isTrue();
+        assertThat(index.isRevoked(new VerifiedToken(expiredUser, UUID.randomUUID(), "x@example.com", "p1",
+                List.of(), Instant.ofEpochSecond(now - 7300), Instant.ofEpochSecond(now + 60)))).isFalse();
+    }
+
+    @Test
+    void sweepKeepsLiveScopesOfPartlyExpiredEntries() {
+        UUID jti = UUID.randomUUID();
+
+        index.revokeJti(jti, "p1", now - 1);
+        index.revokeJti(jti, "p2", now + 3600);
+        index.sweep(now);
+
+        assertThat(index.isRevoked(token(jti, "p1", now))).isFalse();
+        assertThat(index.isRevoked(token(jti, "p2", now))).isTrue();
+    }
+
+    @Test
+    void disabledIndexRevokesNothing() {
+        AccessTokenRevocationProperties properties = new AccessTokenRevocationProperties();
+        properties.setEnabled(false);
+        AccessTokenRevocationIndex disabled = new AccessTokenRevocationIndex(properties, new SimpleMeterRegistry());
+        UUID jti = UUID.randomUUID();
+
+        disabled.revokeJti(jti, ALL_PROJECTS, now + 3600);
+
+        assertThat(disabled.isRevoked(token(jti, "p1", now))).isFalse();
+    }
+
+    @Test
+    void jtiRevocationOnlyAppliesToItsProject() {
+        UUID jti = UUID.randomUUID();
+
+        index.revokeJti(jti, "p2", now + 3600);
+
+        assertThat(index.isRevoked(token(jti, "p1", now))).isFalse();
+        assertThat(index.isRevoked(token(jti, "p2", now))).isTrue();
+    }
+
+    @Test
+    void anotherProjectCannotOverrideARevocation() {
+        UUID jti = UUID.randomUUID();
+
+        index.revokeJti(jti, "p1", now + 3600);
+        index.revokeJti(jti, "p2", now + 10);
+        index.sweep(now + 60);
+
+        assertThat(index.isRevoked(token(jti, "p1", now))).isTrue();
+    }
+
+    @Test
+    void userRevocationOnlyAppliesToItsProject() {
+        index.revokeUser(userId, "p2", now, now + 3600);
+
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p1", now - 10))).isFalse();
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p2", now - 10))).isTrue();
+    }
+
+    @Test
+    void allProjectsRevocationAppliesEverywhere() {
+        UUID jti = UUID.randomUUID();
+
+        index.revokeJti(jti, ALL_PROJECTS, now + 3600);
+        index.revokeUser(userId, ALL_PROJECTS, now, now + 3600);
+
+        assertThat(index.isRevoked(token(jti, "p1", now + 60))).isTrue();
+        assertThat(index.isRevoked(token(UUID.randomUUID(), "p7", now - 10))).isTrue();
+    }
+
+    private VerifiedToken token(UUID jti, String projectId, long issuedAt) {
+        return new VerifiedToken(userId, jti, "user@example.com", projectId, List.of("USER"),
+                Instant.ofEpochSecond(issuedAt), Instant.ofEpochSecond(issuedAt + 3600));
+    }
+}
@@ -0,0 +1,151 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.entity.AuthAccessTokenRevocation;
+import com.roger.auth_service.repo.AuthAccessTokenRevocationRepository;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccessTokenRevocationServiceTests {
+
+    private final AuthAccessTokenRevocationRepository repository = mock(AuthAccessTokenRevocationRepository.class);
+    private final AccessTokenRevocationProperties properties = new AccessTokenRevocationProperties();
+    private final AccessTokenRevocationIndex index =
+            new AccessTokenRevocationIndex(properties, new SimpleMeterRegistry());
+    private final AccessTokenRevocationService service;
+
+    AccessTokenRevocationServiceTests() {
+        properties.setSyncOverlap(Duration.ofSeconds(30));
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAccessTokenValiditySeconds(3600);
+        service = new AccessTokenRevocationService(repository, index, properties, jwtProperties);
+    }
+
+    @Test
+    void revokeTokenPersistsAndAppliesLocallyAtOnce() {
+        UUID jti = UUID.randomUUID();
+
+        service.revokeToken(jti, "p1");
+
+        ArgumentCaptor<AuthAccessTokenRevocation> saved = ArgumentCaptor.forClass(AuthAccessTokenRevocation.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getJti()).isEqualTo(jti);
+        assertThat(saved.getValue().getProjectId()).isEqualTo("p1");
+        assertThat(index.isRevoked(token(UUID.randomUUID(), jti, "p1", Instant.now()))).isTrue();
+    }
+
+    @Test
+    void revocationInsideTransactionAppliesOnlyAfterCommit() {
+        UUID userId = UUID.randomUUID();
+        VerifiedToken token = token(userId, UUID.randomUUID(), "p1", Instant.now().minusSeconds(10));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.revokeAllForUser(userId, null);
+            assertThat(index.isRevoked(token)).isFalse();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void rolledBackRevocationLeavesIndexUntouched() {
+        UUID jti = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.revokeToken(jti, "p1");
+            // 回滚：不调用 afterCommit
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.isRevoked(token(UUID.randomUUID(), jti, "p1", Instant.now()))).isFalse();
+    }
+
+    @Test
+    void syncAppliesOtherNodesRevocations() {
+        UUID jti = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        Instant revokedBefore = Instant.now();
+        when(repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(jtiRecord(jti, null), userRecord(userId, "p1", revokedBefore)));
+
+        service.sync();
+
+        assertThat(index.isRevoked(token(UUID.randomUUID(), jti, "p9", Instant.now()))).isTrue();
+        assertThat(index.isRevoked(token(userId, UUID.randomUUID(), "p1", revokedBefore.minusSeconds(5)))).isTrue();
+        assertThat(index.isRevoked(token(userId, UUID.randomUUID(), "p2", revokedBefore.minusSeconds(5)))).isFalse();
+    }
+
+    @Test
+    void incrementalSyncLooksBackByOverlap() {
+        when(repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfter(any(), any())).thenReturn(List.of());
+
+        service.sync();
+        Instant before = Instant.now();
+        service.sync();
+
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(repository, times(2)).findByCreatedAtGreaterThanEqualAndExpiresAtAfter(since.capture(), any());
+        assertThat(since.getAllValues().get(0)).isEqualTo(Instant.EPOCH);
+        // 第二次从上次同步时间往回 overlap，晚提交的事务 / 时钟偏差不会漏
+        assertThat(since.getAllValues().get(1)).isBefore(before.minusSeconds(29));
+        assertThat(since.getAllValues().get(1)).isAfter(before.minusSeconds(31));
+    }
+
+    @Test
+    void failedSyncKeepsExistingRevocations() {
+        UUID jti = UUID.randomUUID();
+        service.revokeToken(jti, "p1");
+        when(repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+                .thenThrow(new IllegalStateException("database down"));
+
+        service.sync();
+
+        assertThat(index.isRevoked(token(UUID.randomUUID(), jti, "p1", Instant.now()))).isTrue();
+    }
+
+    private static AuthAccessTokenRevocation jtiRecord(UUID jti, String projectId) {
+        AuthAccessTokenRevocation r = new AuthAccessTokenRevocation();
+        r.setJti(jti);
+        r.setProjectId(projectId);
+        r.setExpiresAt(Instant.now().plusSeconds(3600));
+        return r;
+    }
+
+    private static AuthAccessTokenRevocation userRecord(UUID userId, String projectId, Instant revokedBefore) {
+        AuthAccessTokenRevocation r = new AuthAccessTokenRevocation();
+        r.setUserId(userId);
+        r.setProjectId(projectId);
+        r.setRevokedBefore(revokedBefore);
+        r.setExpiresAt(revokedBefore.plusSeconds(3600));
+        return r;
+    }
+
+    private static VerifiedToken token(UUID userId, UUID jti, String projectId, Instant issuedAt) {
+        return new VerifiedToken(userId, jti, "user@example.com", projectId, List.of("USER"),
+                issuedAt, issuedAt.plusSeconds(3600));
+    }
+}
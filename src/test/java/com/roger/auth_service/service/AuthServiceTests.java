@@ -0,0 +1,60 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.dto.AuthTokensDTO;
+import com.roger.auth_service.exception.EmailAlreadyUsedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AuthServiceTests {
+
+    private static final String PROJECT_ID = "auth-service-tests";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void project() {
+        jdbcTemplate.update("INSERT INTO auth_project (id, name, active, created_at, updated_at) " +
+                "VALUES (?, ?, true, now(), now()) ON CONFLICT (id) DO NOTHING", PROJECT_ID, PROJECT_ID);
+    }
+
+    @Test
+    void concurrentRegistrationsForSameEmailYieldOneConflict() {
+        String email = "race-" + UUID.randomUUID() + "@example.com";
+
+        // 两个都在 hash 之前通过 existsByEmail，insert 时才撞唯一约束
+        List<CompletableFuture<AuthTokensDTO>> registrations = List.of(
+                authService.register(email, "secret-pass", PROJECT_ID, "ua", "127.0.0.1"),
+                authService.register(email, "secret-pass", PROJECT_ID, "ua", "127.0.0.1"));
+
+        int succeeded = 0;
+        int conflicts = 0;
+        for (CompletableFuture<AuthTokensDTO> registration : registrations) {
+            try {
+                registration.orTimeout(30, TimeUnit.SECONDS).join();
+                succeeded++;
+            } catch (CompletionException e) {
+                assertThat(e.getCause()).isInstanceOf(EmailAlreadyUsedException.class);
+                conflicts++;
+            }
+        }
+
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(conflicts).isEqualTo(1);
+    }
+}
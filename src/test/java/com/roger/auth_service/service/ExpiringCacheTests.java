@@ -0,0 +1,54 @@
+package com.roger.auth_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void expiredEntriesAreMisses() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, "test.cache", "Test cache", meterRegistry);
+        cache.put("live", "a", System.currentTimeMillis() + 60_000);
+        cache.put("expired", "b", System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("live")).isEqualTo("a");
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("test.cache.hits").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("test.cache.misses").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sizeStaysBoundedAndExpiredGoFirst() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(100, "test.cache", "Test cache", meterRegistry);
+        long live = System.currentTimeMillis() + 60_000;
+        cache.put(-1, "expired", System.currentTimeMillis() - 1);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, "v" + i, live);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.get(-1)).isNull();
+        assertThat(cache.get(999)).isEqualTo("v999");
+    }
+
+    @Test
+    void removeIfCountsEvictions() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(10, "test.cache", "Test cache", meterRegistry);
+        long live = System.currentTimeMillis() + 60_000;
+        for (int i = 0; i < 4; i++) {
+            cache.put(i, "v" + i, live);
+        }
+
+        cache.removeIf((key, value) -> key % 2 == 0);
+        cache.remove(1);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(3)).isEqualTo("v3");
+        assertThat(meterRegistry.get("test.cache.evictions").functionCounter().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,66 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.service.RateLimiterBackend.Permit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimiterBackendTests {
+
+    private static final long HOUR = Duration.ofHours(1).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryRateLimiterBackend backend = new InMemoryRateLimiterBackend(10, meterRegistry);
+
+    @Test
+    void rejectsOnceCapacityIsUsed() {
+        Permit ip = permit("ip", "login:ip:1.2.3.4", 2);
+
+        assertThat(backend.tryAcquire(List.of(ip))).isEmpty();
+        assertThat(backend.tryAcquire(List.of(ip))).isEmpty();
+        assertThat(backend.tryAcquire(List.of(ip))).hasValueSatisfying(r -> {
+            assertThat(r.permit()).isEqualTo(ip);
+            assertThat(r.waitNanos()).isPositive();
+        });
+    }
+
+    @Test
+    void rejectedRequestChargesNoDimension() {
+        Permit email = permit("email", "login:email:a@example.com", 2);
+        Permit project = permit("project", "login:project:p1", 1);
+
+        assertThat(backend.tryAcquire(List.of(email, project))).isEmpty();
+        assertThat(backend.tryAcquire(List.of(email, project)))
+                .hasValueSatisfying(r -> assertThat(r.permit()).isEqualTo(project));
+
+        // 第二次被 project 拒绝，没有扣 email：email 还剩一个
+        assertThat(backend.tryAcquire(List.of(email))).isEmpty();
+        assertThat(backend.tryAcquire(List.of(email))).isPresent();
+    }
+
+    @Test
+    void floodOfNewKeysStaysBoundedAndStillLimits() {
+        Permit ip = permit("ip", "login:ip:1.2.3.4", 1);
+        assertThat(backend.tryAcquire(List.of(ip))).isEmpty();
+
+        for (int i = 0; i < 1000; i++) {
+            Permit email = permit("email", "login:email:user" + i + "@example.com", 1);
+            assertThat(backend.tryAcquire(List.of(email))).isEmpty();
+            // 表满了也照常建 bucket、照常限流，不会放行
+            assertThat(backend.tryAcquire(List.of(email))).isPresent();
+        }
+
+        assertThat(meterRegistry.get("auth.rate_limit.buckets").tag("dimension", "email").gauge().value())
+                .isLessThanOrEqualTo(11);
+        // email 表被灌满不影响 IP 表
+        assertThat(backend.tryAcquire(List.of(ip))).isPresent();
+    }
+
+    private static Permit permit(String dimension, String key, int capacity) {
+        return new Permit(dimension, key, capacity, HOUR / capacity);
+    }
+}
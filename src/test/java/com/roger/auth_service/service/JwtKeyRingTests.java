@@ -0,0 +1,86 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.JwtProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTests {
+
+    private static final String SECRET = "asdafsfgagalfkjalkghasdkjlfhajskdfhlaskjdhfa";
+
+    @Test
+    void asymmetricAlgorithmWithoutKeysFailsStartup() {
+        JwtProperties properties = properties("ES256");
+
+        assertThatThrownBy(() -> new JwtKeyRing(properties).init())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("auth.jwt.keys");
+    }
+
+    @Test
+    void ephemeralKeysOnlyWhenExplicitlyAllowed() {
+        JwtProperties properties = properties("ES256");
+        properties.setAllowEphemeralKeys(true);
+
+        JwtKeyRing ring = new JwtKeyRing(properties);
+        ring.init();
+
+        assertThat(ring.activeKey().kid()).startsWith("ephemeral-");
+    }
+
+    @Test
+    void legacyHs256RequiresSunset() {
+        JwtProperties properties = properties("ES256");
+        properties.setAllowEphemeralKeys(true);
+        properties.setAcceptLegacyHs256(true);
+
+        assertThatThrownBy(() -> new JwtKeyRing(properties).init())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("legacy-hs256-until");
+    }
+
+    @Test
+    void legacyHs256TokensRejectedAfterSunset() {
+        String legacy = Jwts.builder()
+                .setSubject("u1")
+                .setExpiration(Date.from(Instant.now().plusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(parse(ringWithLegacyUntil(Instant.now().plusSeconds(60)), legacy)).isEqualTo("u1");
+        assertThatThrownBy(() -> parse(ringWithLegacyUntil(Instant.now().minusSeconds(1)), legacy))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    private static JwtKeyRing ringWithLegacyUntil(Instant until) {
+        JwtProperties properties = properties("ES256");
+        properties.setAllowEphemeralKeys(true);
+        properties.setAcceptLegacyHs256(true);
+        properties.setLegacyHs256Until(until);
+        JwtKeyRing ring = new JwtKeyRing(properties);
+        ring.init();
+        return ring;
+    }
+
+    private static String parse(JwtKeyRing ring, String token) {
+        return Jwts.parserBuilder().setSigningKeyResolver(ring).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    private static JwtProperties properties(String algorithm) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setAlgorithm(algorithm);
+        return properties;
+    }
+}
@@ -0,0 +1,61 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.JwtProperties;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtService 签发 + 校验（分别测缓存开/关、对称 / 非对称算法）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"HS256", "ES256", "RS256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtProperties props = new JwtProperties();
+        props.setSecret("asdafsfgagalfkjalkghasdkjlfhajskdfhlaskjdhfa");
+        props.setAccessTokenValiditySeconds(3600);
+        props.getCache().setEnabled(cacheEnabled);
+        props.setAlgorithm(algorithm);
+        // ES256 / RS256 没配 auth.jwt.keys：基准里用启动时临时生成的密钥对
+        props.setAllowEphemeralKeys(true);
+
+        JwtKeyRing keyRing = new JwtKeyRing(props);
+        keyRing.init();
+        jwtService = new JwtService(props, new VerifiedTokenCache(props, new SimpleMeterRegistry()), keyRing, new SimpleMeterRegistry());
+        jwtService.init();
+
+        userId = UUID.randomUUID();
+        token = jwtService.generateAccessToken(userId, "user@example.com", "proj_ai_video", List.of("USER"));
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(userId, "user@example.com", "proj_ai_video", List.of("USER"));
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+}
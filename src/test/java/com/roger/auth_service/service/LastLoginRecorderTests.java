@@ -0,0 +1,92 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.LastLoginProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class LastLoginRecorderTests {
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void flushKeepsLatestLoginPerUser() {
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        UUID alice = insertUser();
+        UUID bob = insertUser();
+
+        // 乱序到达，最新的不是最后一个
+        lastLoginRecorder.record(alice, base.plusSeconds(30));
+        lastLoginRecorder.record(alice, base.plusSeconds(10));
+        lastLoginRecorder.record(bob, base.plusSeconds(5));
+        lastLoginRecorder.record(alice, base.plusSeconds(20));
+        lastLoginRecorder.record(bob, base.plusSeconds(15));
+        lastLoginRecorder.flush();
+
+        assertThat(lastLoginAt(alice)).isEqualTo(base.plusSeconds(30));
+        assertThat(lastLoginAt(bob)).isEqualTo(base.plusSeconds(15));
+    }
+
+    @Test
+    void olderLoginFlushedLaterDoesNotMoveBackwards() {
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        UUID userId = insertUser();
+
+        lastLoginRecorder.record(userId, base.plusSeconds(60));
+        lastLoginRecorder.flush();
+        // 另一个节点晚到的旧时间
+        lastLoginRecorder.record(userId, base);
+        lastLoginRecorder.flush();
+
+        assertThat(lastLoginAt(userId)).isEqualTo(base.plusSeconds(60));
+    }
+
+    @Test
+    void failedFlushIsRequeued() {
+        JdbcTemplate failing = mock(JdbcTemplate.class);
+        when(failing.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(1);
+        LastLoginRecorder recorder = new LastLoginRecorder(failing, new LastLoginProperties(), new SimpleMeterRegistry());
+
+        recorder.record(UUID.randomUUID(), Instant.now());
+        recorder.flush();
+        recorder.flush();
+        // 第三次没东西可刷
+        recorder.flush();
+
+        verify(failing, times(2)).update(anyString(), any(Object[].class));
+    }
+
+    private UUID insertUser() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO auth_user (id, email, email_verified, password_hash, active, locked, deleted, " +
+                "created_at, updated_at) VALUES (?, ?, false, 'x', true, false, false, now(), now())",
+                id, "last-login-" + id + "@example.com");
+        return id;
+    }
+
+    private Instant lastLoginAt(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT last_login_at FROM auth_user WHERE id = ?", Instant.class, userId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.MembershipCacheProperties;
+import com.roger.auth_service.entity.ProjectRole;
+import com.roger.auth_service.repo.MembershipGrant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MembershipCacheTests {
+
+    private final InProcessMembershipInvalidationBus bus = new InProcessMembershipInvalidationBus();
+    private final MembershipCache cache = new MembershipCache(new MembershipCacheProperties(), bus, new SimpleMeterRegistry());
+
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void cachesGrantsButNotMisses() {
+        cache.get(userId, "p1", loader(ProjectRole.USER));
+        cache.get(userId, "p1", loader(ProjectRole.USER));
+        cache.get(userId, "p2", this::missing);
+        cache.get(userId, "p2", this::missing);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void evictDropsOnlyThatProjectAndEvictUserDropsAll() {
+        cache.get(userId, "p1", loader(ProjectRole.USER));
+        cache.get(userId, "p2", loader(ProjectRole.USER));
+
+        cache.evict(userId, "p1");
+        assertThat(cache.get(userId, "p1", loader(ProjectRole.ADMIN))).get()
+                .extracting(MembershipGrant::role).isEqualTo(ProjectRole.ADMIN);
+        assertThat(cache.get(userId, "p2", loader(ProjectRole.ADMIN))).get()
+                .extracting(MembershipGrant::role).isEqualTo(ProjectRole.USER);
+
+        cache.evictUser(userId);
+        assertThat(cache.get(userId, "p2", loader(ProjectRole.ADMIN))).get()
+                .extracting(MembershipGrant::role).isEqualTo(ProjectRole.ADMIN);
+    }
+
+    @Test
+    void invalidationIsPublishedOnlyAfterCommit() {
+        cache.get(userId, "p1", loader(ProjectRole.USER));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictUser(userId);
+            // 提交前别的请求还能读到旧值，但不会因为提前删掉而把旧值重新读回来
+            assertThat(cache.get(userId, "p1", loader(ProjectRole.ADMIN))).get()
+                    .extracting(MembershipGrant::role).isEqualTo(ProjectRole.USER);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.get(userId, "p1", loader(ProjectRole.ADMIN))).get()
+                .extracting(MembershipGrant::role).isEqualTo(ProjectRole.ADMIN);
+    }
+
+    @Test
+    void busDeliversToEverySubscribedCache() {
+        MembershipCache otherNode = new MembershipCache(new MembershipCacheProperties(), bus, new SimpleMeterRegistry());
+        otherNode.get(userId, "p1", loader(ProjectRole.USER));
+        cache.get(userId, "p1", loader(ProjectRole.USER));
+
+        cache.evict(userId, "p1");
+
+        assertThat(otherNode.get(userId, "p1", loader(ProjectRole.ADMIN))).get()
+                .extracting(MembershipGrant::role).isEqualTo(ProjectRole.ADMIN);
+    }
+
+    private Supplier<Optional<MembershipGrant>> loader(ProjectRole role) {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.of(new MembershipGrant(role, "user@example.com", true, false, false));
+        };
+    }
+
+    private Optional<MembershipGrant> missing() {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+}
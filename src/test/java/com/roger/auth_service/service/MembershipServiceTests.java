@@ -0,0 +1,71 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.entity.ProjectRole;
+import com.roger.auth_service.exception.RoleChangeNotAllowedException;
+import com.roger.auth_service.repo.AuthUserProjectMembershipRepository;
+import com.roger.auth_service.repo.MembershipGrant;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MembershipServiceTests {
+
+    private final AuthUserProjectMembershipRepository repository = mock(AuthUserProjectMembershipRepository.class);
+    private final MembershipCache cache = mock(MembershipCache.class);
+    private final MembershipService service = new MembershipService(repository, cache);
+
+    private final UUID actor = UUID.randomUUID();
+    private final UUID target = UUID.randomUUID();
+
+    @Test
+    void cannotChangeOwnRole() {
+        assertThatThrownBy(() -> service.changeRole(actor, ProjectRole.ADMIN, actor, "p1", ProjectRole.OWNER))
+                .isInstanceOf(RoleChangeNotAllowedException.class);
+
+        verify(repository, never()).updateRole(any(), any(), any(), any());
+    }
+
+    @Test
+    void adminCannotGrantOwner() {
+        givenRole(ProjectRole.USER);
+
+        assertThatThrownBy(() -> service.changeRole(actor, ProjectRole.ADMIN, target, "p1", ProjectRole.OWNER))
+                .isInstanceOf(RoleChangeNotAllowedException.class);
+
+        verify(repository, never()).updateRole(any(), any(), any(), any());
+    }
+
+    @Test
+    void adminCannotDemoteOwner() {
+        givenRole(ProjectRole.OWNER);
+
+        assertThatThrownBy(() -> service.changeRole(actor, ProjectRole.ADMIN, target, "p1", ProjectRole.USER))
+                .isInstanceOf(RoleChangeNotAllowedException.class);
+
+        verify(repository, never()).updateRole(any(), any(), any(), any());
+    }
+
+    @Test
+    void ownerGrantsOwnerAndEvictsCache() {
+        givenRole(ProjectRole.ADMIN);
+        when(repository.updateRole(eq(target), eq("p1"), eq(ProjectRole.OWNER), any())).thenReturn(1);
+
+        service.changeRole(actor, ProjectRole.OWNER, target, "p1", ProjectRole.OWNER);
+
+        verify(cache).evict(target, "p1");
+    }
+
+    private void givenRole(ProjectRole role) {
+        when(repository.findGrant(target, "p1"))
+                .thenReturn(Optional.of(new MembershipGrant(role, "u@example.com", true, false, false)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.roger.auth_service.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各算法 / cost 下的 encode / matches 耗时（登录、注册的主要 CPU 开销），
+ * 用来给 auth.password-hashing.* 选下限参数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"bcrypt-8", "bcrypt-10", "bcrypt-12", "argon2id-2", "pbkdf2-310000"})
+    public String config;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        String algorithm = config.substring(0, config.indexOf('-'));
+        int cost = Integer.parseInt(config.substring(config.indexOf('-') + 1));
+        encoder = switch (algorithm) {
+            case "bcrypt" -> new BCryptPasswordEncoder(cost);
+            case "argon2id" -> new Argon2PasswordEncoder(16, 32, 1, 19 * 1024, cost);
+            case "pbkdf2" -> new Pbkdf2PasswordEncoder("", 16, cost,
+                    Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+            default -> throw new IllegalArgumentException(config);
+        };
+        hash = encoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("correct horse battery staple", hash);
+    }
+}
@@ -0,0 +1,65 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.PasswordHashingProperties;
+import com.roger.auth_service.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PasswordHasherTests {
+
+    private final PasswordHasher hasher;
+
+    PasswordHasherTests() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(1);
+        properties.setContinuationThreads(1);
+        properties.setContinuationQueueCapacity(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        hasher = new PasswordHasher(encoder, properties, mock(DataSource.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void shutdown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void fullContinuationQueueFailsFastWithBusy() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 占住唯一的 continuation 线程（非 async 的后续阶段跑在完成 future 的线程上）
+        CompletableFuture<Object> blocking = hasher.encode("a").thenApply(hash -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return hash;
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> queued = hasher.encode("b");
+        CompletableFuture<String> rejected = hasher.encode("c");
+
+        assertThat(rejected).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .havingCause()
+                .isInstanceOf(PasswordHashingBusyException.class);
+
+        release.countDown();
+        blocking.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,66 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.ProjectRegistryProperties;
+import com.roger.auth_service.entity.AuthProject;
+import com.roger.auth_service.exception.ProjectInactiveException;
+import com.roger.auth_service.repo.AuthProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectRegistryTests {
+
+    private final AuthProjectRepository repository = mock(AuthProjectRepository.class);
+    private final ProjectRegistry registry =
+            new ProjectRegistry(repository, new ProjectRegistryProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void unknownProjectIdIsOnlyLookedUpOnceWithinNegativeTtl() {
+        when(repository.findById("nope")).thenReturn(Optional.empty());
+
+        assertThat(registry.find("nope")).isEmpty();
+        assertThat(registry.find("nope")).isEmpty();
+
+        verify(repository, times(1)).findById("nope");
+    }
+
+    @Test
+    void invalidateDropsNegativeEntry() {
+        when(repository.findById("p1")).thenReturn(Optional.empty());
+        assertThat(registry.find("p1")).isEmpty();
+
+        when(repository.findById("p1")).thenReturn(Optional.of(project("p1", true)));
+        registry.invalidate("p1");
+
+        assertThat(registry.find("p1")).isPresent();
+    }
+
+    @Test
+    void invalidateReloadsDeactivatedProject() {
+        when(repository.findById("p1")).thenReturn(Optional.of(project("p1", true)));
+        registry.require("p1");
+        registry.require("p1");
+        verify(repository, times(1)).findById("p1");
+
+        when(repository.findById("p1")).thenReturn(Optional.of(project("p1", false)));
+        registry.invalidate("p1");
+
+        assertThatThrownBy(() -> registry.require("p1")).isInstanceOf(ProjectInactiveException.class);
+    }
+
+    private static AuthProject project(String id, boolean active) {
+        AuthProject project = new AuthProject();
+        project.setId(id);
+        project.setName(id);
+        project.setActive(active);
+        return project;
+    }
+}
@@ -0,0 +1,107 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.RefreshTokenProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RefreshTokenReaperTests {
+
+    private static final String PROJECT_ID = "refresh-token-reaper-tests";
+
+    // 和 RefreshTokenReaper.ADVISORY_LOCK_KEY 一致
+    private static final long ADVISORY_LOCK_KEY = 0x6175746870757267L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenReaper reaper;
+
+    @BeforeEach
+    void reaper() {
+        RefreshTokenProperties properties = new RefreshTokenProperties();
+        // 小批次，让每类行都跨好几批
+        properties.getPurge().setBatchSize(2);
+        properties.getPurge().setPauseBetweenBatches(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        reaper = new RefreshTokenReaper(jdbcTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredAndLongRevokedRows() {
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            insertToken(userId, "now() - interval '8 days'", false, null);
+            insertToken(userId, "now() + interval '1 day'", true, "now() - interval '8 days'");
+        }
+        UUID live = insertToken(userId, "now() + interval '1 day'", false, null);
+        UUID recentlyRevoked = insertToken(userId, "now() + interval '1 day'", true, "now() - interval '1 hour'");
+        UUID recentlyExpired = insertToken(userId, "now() - interval '1 hour'", false, null);
+
+        reaper.purge();
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id FROM auth_refresh_token WHERE user_id = ?", UUID.class, userId))
+                .containsExactlyInAnyOrder(live, recentlyRevoked, recentlyExpired);
+        assertThat(meterRegistry.get("auth.refresh_token.purge.skipped").counter().count()).isZero();
+    }
+
+    @Test
+    void purgeIsSkippedWhileAnotherNodeHoldsTheLock() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID expired = insertToken(userId, "now() - interval '8 days'", false, null);
+
+        try (Connection other = dataSource.getConnection()) {
+            assertThat(advisoryLock(other, "pg_try_advisory_lock")).isTrue();
+            try {
+                reaper.purge();
+            } finally {
+                advisoryLock(other, "pg_advisory_unlock");
+            }
+        }
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id FROM auth_refresh_token WHERE user_id = ?", UUID.class, userId))
+                .containsExactly(expired);
+        assertThat(meterRegistry.get("auth.refresh_token.purge.skipped").counter().count()).isEqualTo(1);
+
+        reaper.purge();
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id FROM auth_refresh_token WHERE user_id = ?", UUID.class, userId)).isEmpty();
+    }
+
+    private UUID insertToken(UUID userId, String expiresAt, boolean revoked, String revokedAt) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO auth_refresh_token (id, user_id, project_id, token_digest, expires_at, " +
+                        "revoked, revoked_at, created_at) VALUES (?, ?, ?, ?, " + expiresAt + ", ?, " + revokedAt + ", now())",
+                id, userId, PROJECT_ID, RefreshTokenService.digestToken(id.toString()), revoked);
+        return id;
+    }
+
+    private static boolean advisoryLock(Connection con, String function) throws Exception {
+        try (PreparedStatement ps = con.prepareStatement("SELECT " + function + "(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.roger.auth_service.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * refresh token 生成 + hash（每次 /refresh 和登录都会走）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshTokenServiceBenchmark {
+
+    private String plainToken;
+
+    @Setup
+    public void setup() {
+        plainToken = RefreshTokenService.newPlainToken();
+    }
+
+    @Benchmark
+    public String newPlainToken() {
+        return RefreshTokenService.newPlainToken();
+    }
+
+    @Benchmark
+    public byte[] digestToken() {
+        return RefreshTokenService.digestToken(plainToken);
+    }
+
+    @Benchmark
+    public String legacyHashToken() {
+        return RefreshTokenService.legacyHashToken(plainToken);
+    }
+}
@@ -0,0 +1,103 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.exception.InvalidRefreshTokenException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class RefreshTokenServiceTests {
+
+    private static final String PROJECT_ID = "refresh-token-tests";
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reuseWithinGraceKeepsSingleActiveSuccessor() {
+        UUID userId = UUID.randomUUID();
+        String original = refreshTokenService.generateAndStore(userId, PROJECT_ID, "ua", "127.0.0.1");
+
+        String first = refreshTokenService.rotate(original, PROJECT_ID, true, "ua", "127.0.0.1").refreshToken();
+        String replayed = refreshTokenService.rotate(original, PROJECT_ID, true, "ua", "127.0.0.1").refreshToken();
+
+        assertThat(replayed).isNotEqualTo(first);
+        assertThat(activeTokens(userId)).isEqualTo(1);
+        // 第一次换出的已经作废
+        assertThatThrownBy(() -> refreshTokenService.rotate(first, PROJECT_ID, false, "ua", "127.0.0.1"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        // grace 只能用一次
+        assertThatThrownBy(() -> refreshTokenService.rotate(original, PROJECT_ID, true, "ua", "127.0.0.1"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(activeTokens(userId)).isEqualTo(1);
+
+        refreshTokenService.rotate(replayed, PROJECT_ID, false, "ua", "127.0.0.1");
+        assertThat(activeTokens(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void noGraceOnceSuccessorWasUsed() {
+        UUID userId = UUID.randomUUID();
+        String original = refreshTokenService.generateAndStore(userId, PROJECT_ID, "ua", "127.0.0.1");
+        String first = refreshTokenService.rotate(original, PROJECT_ID, true, "ua", "127.0.0.1").refreshToken();
+        refreshTokenService.rotate(first, PROJECT_ID, true, "ua", "127.0.0.1");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(original, PROJECT_ID, true, "ua", "127.0.0.1"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(activeTokens(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void noGraceUnlessRequested() {
+        UUID userId = UUID.randomUUID();
+        String original = refreshTokenService.generateAndStore(userId, PROJECT_ID, "ua", "127.0.0.1");
+        refreshTokenService.rotate(original, PROJECT_ID, false, "ua", "127.0.0.1");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(original, PROJECT_ID, false, "ua", "127.0.0.1"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(activeTokens(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsReportedAsExpired() {
+        UUID userId = UUID.randomUUID();
+        String original = refreshTokenService.generateAndStore(userId, PROJECT_ID, "ua", "127.0.0.1");
+        jdbcTemplate.update("UPDATE auth_refresh_token SET expires_at = now() - interval '1 minute' " +
+                "WHERE user_id = ?", userId);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(original, PROJECT_ID, false, "ua", "127.0.0.1"))
+                .isInstanceOfSatisfying(InvalidRefreshTokenException.class, ex -> assertThat(ex.isExpired()).isTrue());
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown", PROJECT_ID, false, "ua", "127.0.0.1"))
+                .isInstanceOfSatisfying(InvalidRefreshTokenException.class, ex -> assertThat(ex.isExpired()).isFalse());
+    }
+
+    @Test
+    void revokeAllSkipsRotationsOutsideGraceWindow() {
+        UUID userId = UUID.randomUUID();
+        String original = refreshTokenService.generateAndStore(userId, PROJECT_ID, "ua", "127.0.0.1");
+        String first = refreshTokenService.rotate(original, PROJECT_ID, false, "ua", "127.0.0.1").refreshToken();
+        refreshTokenService.rotate(first, PROJECT_ID, false, "ua", "127.0.0.1");
+        // original 的轮换已经在 grace 窗口之外
+        jdbcTemplate.update("UPDATE auth_refresh_token SET rotated_at = now() - interval '1 hour' " +
+                "WHERE user_id = ? AND token_digest = ?", userId, RefreshTokenService.digestToken(original));
+
+        // 只重写还能用的 successor 和 grace 窗口内的 first
+        assertThat(refreshTokenService.revokeAll(userId, PROJECT_ID)).isEqualTo(2);
+        assertThat(activeTokens(userId)).isZero();
+    }
+
+    private Integer activeTokens(UUID userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM auth_refresh_token WHERE user_id = ? AND revoked = false AND expires_at > now()",
+                Integer.class, userId);
+    }
+}
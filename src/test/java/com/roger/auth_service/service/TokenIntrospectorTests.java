@@ -0,0 +1,67 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.config.AccessTokenRevocationProperties;
+import com.roger.auth_service.config.IntrospectionProperties;
+import com.roger.auth_service.entity.ProjectRole;
+import com.roger.auth_service.repo.AuthUserProjectMembershipRepository;
+import com.roger.auth_service.repo.MembershipGrant;
+import com.roger.auth_service.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenIntrospectorTests {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final MembershipCache membershipCache = mock(MembershipCache.class);
+    private final ProjectRegistry projectRegistry = mock(ProjectRegistry.class);
+    private final TokenIntrospector introspector = new TokenIntrospector(jwtService, membershipCache,
+            new AccessTokenRevocationIndex(new AccessTokenRevocationProperties(), new SimpleMeterRegistry()),
+            projectRegistry, mock(AuthUserProjectMembershipRepository.class), new IntrospectionProperties());
+
+    private final UUID userId = UUID.randomUUID();
+
+    TokenIntrospectorTests() {
+        when(jwtService.verify(eq("token"), any())).thenReturn(new VerifiedToken(userId, UUID.randomUUID(),
+                "user@example.com", "p1", List.of("USER"), Instant.now(), Instant.now().plusSeconds(3600)));
+        when(membershipCache.get(eq(userId), eq("p1"), any())).thenReturn(
+                Optional.of(new MembershipGrant(ProjectRole.USER, "user@example.com", true, false, false)));
+    }
+
+    @AfterEach
+    void shutdown() {
+        introspector.shutdown();
+    }
+
+    @Test
+    void activeProjectIntrospectsActive() {
+        when(projectRegistry.find("p1")).thenReturn(Optional.of(new RegisteredProject("p1", "p1", true)));
+
+        assertThat(introspector.introspect("token").isActive()).isTrue();
+    }
+
+    @Test
+    void deactivatedProjectIntrospectsInactive() {
+        when(projectRegistry.find("p1")).thenReturn(Optional.of(new RegisteredProject("p1", "p1", false)));
+
+        assertThat(introspector.introspect("token").isActive()).isFalse();
+    }
+
+    @Test
+    void unknownProjectIntrospectsInactive() {
+        when(projectRegistry.find("p1")).thenReturn(Optional.empty());
+
+        assertThat(introspector.introspect("token").isActive()).isFalse();
+    }
+}
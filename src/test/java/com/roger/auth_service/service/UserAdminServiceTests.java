@@ -0,0 +1,60 @@
+package com.roger.auth_service.service;
+
+import com.roger.auth_service.entity.AuthUser;
+import com.roger.auth_service.exception.UserNotFoundException;
+import com.roger.auth_service.repo.AuthUserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserAdminServiceTests {
+
+    private final AuthUserRepository userRepository = mock(AuthUserRepository.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final AccessTokenRevocationService accessTokenRevocationService = mock(AccessTokenRevocationService.class);
+    private final MembershipCache membershipCache = mock(MembershipCache.class);
+    private final UserAdminService service =
+            new UserAdminService(userRepository, refreshTokenService, accessTokenRevocationService, membershipCache);
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void disableRevokesTokensAndEvictsMembershipCache() {
+        AuthUser user = new AuthUser();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        service.disable(userId);
+
+        assertThat(user.isEnabled()).isFalse();
+        verify(refreshTokenService).revokeAll(userId);
+        verify(accessTokenRevocationService).revokeAllForUser(userId, null);
+        verify(membershipCache).evictUser(userId);
+    }
+
+    @Test
+    void deleteMarksDeletedAndEvictsMembershipCache() {
+        AuthUser user = new AuthUser();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        service.delete(userId);
+
+        assertThat(user.isDeleted()).isTrue();
+        verify(membershipCache).evictUser(userId);
+    }
+
+    @Test
+    void unknownUserIsNotFound() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.disable(userId)).isInstanceOf(UserNotFoundException.class);
+        verifyNoInteractions(membershipCache);
+    }
+}